@@ -0,0 +1,101 @@
+package application;
+
+import java.util.Arrays;
+
+// Archetype store: all entities of one kind kept as packed component columns
+// A subclass declares its columns as plain arrays, so a system walks only the components
+// it needs over the dense rows [0, count). Removal swaps the last row into the gap, like
+// ProjectileStore. Each entity also gets a generational handle that follows it while
+// its row moves and goes stale once it is removed: row(handle) then answers -1 instead
+// of pointing at whatever reused the row, and nothing keeps the removed entity alive.
+abstract class Archetype {
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+    int count;
+    private int capacity;
+    private int[] slotOfRow;
+    private int[] rowOfSlot;  // Next free slot for a free slot
+    private int[] generation;
+    private int slotCount;
+    private int freeSlot = -1;
+
+    // Subclasses allocate their columns with the same capacity
+    protected Archetype(int capacity) {
+        this.capacity = capacity;
+        slotOfRow = new int[capacity];
+        rowOfSlot = new int[capacity];
+        generation = new int[capacity];
+    }
+
+    // Resize every column to the new capacity
+    protected abstract void grow(int newCapacity);
+
+    // Copy every column of row from into row to
+    protected abstract void moveRow(int from, int to);
+
+    // Appends an empty row for a new entity, the caller fills its columns
+    protected int addRow() {
+        if (count == capacity) {
+            capacity *= 2;
+            slotOfRow = Arrays.copyOf(slotOfRow, capacity);
+            grow(capacity);
+        }
+        int slot = freeSlot;
+        if (slot >= 0) {
+            freeSlot = rowOfSlot[slot];
+        } else {
+            if (slotCount == rowOfSlot.length) {
+                rowOfSlot = Arrays.copyOf(rowOfSlot, slotCount * 2);
+                generation = Arrays.copyOf(generation, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        int row = count++;
+        slotOfRow[row] = slot;
+        rowOfSlot[slot] = row;
+        return row;
+    }
+
+    // Swap-remove, the caller must look at row again; the entity's handle goes stale
+    void remove(int row) {
+        int slot = slotOfRow[row];
+        generation[slot] = (generation[slot] + 1) & (-1 >>> SLOT_BITS);
+        rowOfSlot[slot] = freeSlot;
+        freeSlot = slot;
+        int last = --count;
+        if (row != last) {
+            moveRow(last, row);
+            slotOfRow[row] = slotOfRow[last];
+            rowOfSlot[slotOfRow[row]] = row;
+        }
+    }
+
+    // Remove every row at once, all handles go stale
+    void clear() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            generation[slot] = (generation[slot] + 1) & (-1 >>> SLOT_BITS);
+        }
+        count = 0;
+        slotCount = 0;
+        freeSlot = -1;
+    }
+
+    int handle(int row) {
+        int slot = slotOfRow[row];
+        return slot | generation[slot] << SLOT_BITS;
+    }
+
+    // Current row of the entity, -1 once it was removed
+    int row(int handle) {
+        int slot = handle & SLOT_MASK;
+        if (slot >= slotCount || generation[slot] != handle >>> SLOT_BITS) {
+            return -1;
+        }
+        return rowOfSlot[slot];
+    }
+
+    int size() {
+        return count;
+    }
+}
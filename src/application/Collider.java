@@ -0,0 +1,158 @@
+package application;
+
+// Collision shape of an entity: circle, box or a compound of those
+// Each entity owns one Collider and moves it to its current position when asked, so no
+// shape is allocated per tick. All kernels compare squared distances; a test costs a
+// few multiplies whatever the pair, and every entity is measured from its real outline.
+// Projectiles have no Collider, they are tested as a swept segment with a radius.
+final class Collider {
+    private static final int CIRCLE = 0;
+    private static final int BOX = 1;
+    private static final int COMPOUND = 2;
+
+    private int shape = BOX;
+    private double centerX, centerY, radius;  // Circle
+    private double minX, minY, maxX, maxY;    // Bounds, the shape itself for a box
+    private final Collider[] parts;
+    private int partCount;
+
+    Collider() {
+        this(0);
+    }
+
+    // Room for a compound of up to maxParts simple shapes
+    Collider(int maxParts) {
+        parts = new Collider[maxParts];
+        for (int i = 0; i < maxParts; i++) {
+            parts[i] = new Collider();
+        }
+    }
+
+    Collider circle(double x, double y, double r) {
+        shape = CIRCLE;
+        centerX = x;
+        centerY = y;
+        radius = r;
+        minX = x - r;
+        minY = y - r;
+        maxX = x + r;
+        maxY = y + r;
+        return this;
+    }
+
+    Collider box(double left, double top, double right, double bottom) {
+        shape = BOX;
+        minX = left;
+        minY = top;
+        maxX = right;
+        maxY = bottom;
+        return this;
+    }
+
+    // Part i of a compound, set its shape and then call compound()
+    Collider part(int i) {
+        return parts[i];
+    }
+
+    // Use the first count parts as this shape
+    Collider compound(int count) {
+        shape = COMPOUND;
+        partCount = count;
+        minX = minY = Double.POSITIVE_INFINITY;
+        maxX = maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, parts[i].minX);
+            minY = Math.min(minY, parts[i].minY);
+            maxX = Math.max(maxX, parts[i].maxX);
+            maxY = Math.max(maxY, parts[i].maxY);
+        }
+        return this;
+    }
+
+    double minX() { return minX; }
+    double minY() { return minY; }
+    double maxX() { return maxX; }
+    double maxY() { return maxY; }
+
+    static boolean overlaps(Collider a, Collider b) {
+        if (a.shape == COMPOUND) {
+            for (int i = 0; i < a.partCount; i++) {
+                if (overlaps(a.parts[i], b)) return true;
+            }
+            return false;
+        }
+        if (b.shape == COMPOUND) {
+            return overlaps(b, a);
+        }
+        if (a.shape == CIRCLE && b.shape == CIRCLE) {
+            double dx = a.centerX - b.centerX, dy = a.centerY - b.centerY;
+            double r = a.radius + b.radius;
+            return dx * dx + dy * dy < r * r;
+        }
+        if (a.shape == CIRCLE) {
+            return circleHitsBox(a, b);
+        }
+        if (b.shape == CIRCLE) {
+            return circleHitsBox(b, a);
+        }
+        return a.minX <= b.maxX && b.minX <= a.maxX &&
+               a.minY <= b.maxY && b.minY <= a.maxY;
+    }
+
+    private static boolean circleHitsBox(Collider circle, Collider box) {
+        double dx = circle.centerX - Math.max(box.minX, Math.min(circle.centerX, box.maxX));
+        double dy = circle.centerY - Math.max(box.minY, Math.min(circle.centerY, box.maxY));
+        return dx * dx + dy * dy < circle.radius * circle.radius;
+    }
+
+    // Swept test: a projectile of radius r that moved from (x0,y0) to (x1,y1) this tick
+    static boolean segmentHits(double x0, double y0, double x1, double y1, double r, Collider c) {
+        switch (c.shape) {
+            case COMPOUND:
+                for (int i = 0; i < c.partCount; i++) {
+                    if (segmentHits(x0, y0, x1, y1, r, c.parts[i])) return true;
+                }
+                return false;
+            case CIRCLE:
+                return segmentHitsCircle(x0, y0, x1, y1, c.centerX, c.centerY, c.radius + r);
+            default:
+                // The box grown by r, the rounded corners are ignored
+                return segmentHitsBox(x0, y0, x1, y1, c.minX - r, c.minY - r, c.maxX + r, c.maxY + r);
+        }
+    }
+
+    // Slab test, edges included
+    private static boolean segmentHitsBox(double x0, double y0, double x1, double y1,
+                                          double left, double top, double right, double bottom) {
+        double enter = 0, exit = 1;
+        double dx = x1 - x0;
+        if (dx == 0) {
+            if (x0 < left || x0 > right) return false;
+        } else {
+            double a = (left - x0) / dx, b = (right - x0) / dx;
+            enter = Math.max(enter, Math.min(a, b));
+            exit = Math.min(exit, Math.max(a, b));
+            if (enter > exit) return false;
+        }
+        double dy = y1 - y0;
+        if (dy == 0) {
+            return y0 >= top && y0 <= bottom;
+        }
+        double a = (top - y0) / dy, b = (bottom - y0) / dy;
+        enter = Math.max(enter, Math.min(a, b));
+        exit = Math.min(exit, Math.max(a, b));
+        return enter <= exit;
+    }
+
+    // Closest point of the segment to the center, edge excluded
+    private static boolean segmentHitsCircle(double x0, double y0, double x1, double y1,
+                                             double cx, double cy, double r) {
+        double dx = x1 - x0, dy = y1 - y0;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq > 0 ? ((cx - x0) * dx + (cy - y0) * dy) / lengthSq : 0;
+        t = Math.max(0, Math.min(1, t));
+        double ox = x0 + t * dx - cx;
+        double oy = y0 + t * dy - cy;
+        return ox * ox + oy * oy < r * r;
+    }
+}
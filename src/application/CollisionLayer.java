@@ -0,0 +1,14 @@
+package application;
+
+// Collision layers, every collidable body belongs to exactly one
+// Which layers touch is decided by a CollisionMatrix.
+enum CollisionLayer {
+    PLAYER,
+    WINGMAN,
+    PLAYER_SHOT,
+    ENEMY,
+    ENEMY_SHOT,
+    METEOR,
+    PICKUP,
+    BOSS
+}
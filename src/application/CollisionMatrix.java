@@ -0,0 +1,45 @@
+package application;
+
+import java.util.Arrays;
+
+// Layer interaction matrix
+// Each enabled pair of layers is a rule. Rules are numbered in the order they are
+// enabled, and contacts are handled in rule order, so the engine lists the important
+// interactions first (a bullet that hits the player never reaches a wing-man).
+// Levels can switch extra interactions on through LevelRules.configureCollisions.
+final class CollisionMatrix {
+    private static final int LAYERS = CollisionLayer.values().length;
+
+    private final int[] rule = new int[LAYERS * LAYERS];  // -1 when the layers do not touch
+    private final int[] firstLayer = new int[LAYERS * LAYERS];
+    private int ruleCount;
+
+    CollisionMatrix() {
+        Arrays.fill(rule, -1);
+    }
+
+    // Contacts of this rule report the body on the first layer first
+    void enable(CollisionLayer first, CollisionLayer second) {
+        int a = first.ordinal(), b = second.ordinal();
+        if (rule[a * LAYERS + b] >= 0) {
+            return;
+        }
+        firstLayer[ruleCount] = a;
+        rule[a * LAYERS + b] = ruleCount;
+        rule[b * LAYERS + a] = ruleCount;
+        ruleCount++;
+    }
+
+    // Rule number for two layer ordinals, -1 if they do not interact
+    int rule(int layerA, int layerB) {
+        return rule[layerA * LAYERS + layerB];
+    }
+
+    int firstLayer(int ruleNumber) {
+        return firstLayer[ruleNumber];
+    }
+
+    int ruleCount() {
+        return ruleCount;
+    }
+}
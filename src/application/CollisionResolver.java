@@ -0,0 +1,216 @@
+package application;
+
+import java.util.Arrays;
+
+// Single-pass collision resolver
+// Every collidable object is added once per tick as a body: layer, who owns it (source
+// and index, chosen by the caller) and its shape, a Collider or the swept segment of a
+// projectile. resolve() buckets all bodies in one SpatialHash, walks each cell once and
+// keeps the pairs whose layers interact, whose bounds overlap and whose shapes touch.
+// The resulting contacts are sorted by rule so they can be handled in priority order.
+final class CollisionResolver {
+    private final CollisionMatrix matrix;
+    private final SpatialHash grid = new SpatialHash();
+
+    // Bodies
+    private int bodyCount;
+    private int[] layer = new int[256];
+    private int[] source = new int[256];
+    private int[] index = new int[256];
+    private double[] minX = new double[256];
+    private double[] minY = new double[256];
+    private double[] maxX = new double[256];
+    private double[] maxY = new double[256];
+    private boolean[] dead = new boolean[256];
+    private Collider[] collider = new Collider[256];  // null for a segment
+    private double[] segmentX0 = new double[256];
+    private double[] segmentY0 = new double[256];
+    private double[] segmentX1 = new double[256];
+    private double[] segmentY1 = new double[256];
+    private double[] segmentRadius = new double[256];
+
+    // Contacts, in discovery order and then sorted by rule
+    private int contactCount;
+    private int[] contactRule = new int[128];
+    private int[] contactFirst = new int[128];
+    private int[] contactSecond = new int[128];
+    private int[] sortedFirst = new int[128];
+    private int[] sortedSecond = new int[128];
+    private int[] ruleStart = new int[0];
+
+    private int pairsTested;
+    private int pairsHit;
+
+    CollisionResolver(CollisionMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    void clear() {
+        Arrays.fill(collider, 0, bodyCount, null);
+        bodyCount = 0;
+        contactCount = 0;
+        pairsTested = 0;
+        pairsHit = 0;
+    }
+
+    // Returns the body id; the collider is read during resolve(), not copied
+    int add(CollisionLayer bodyLayer, int bodySource, int bodyIndex, Collider shape) {
+        int b = addBody(bodyLayer, bodySource, bodyIndex,
+                shape.minX(), shape.minY(), shape.maxX(), shape.maxY());
+        collider[b] = shape;
+        return b;
+    }
+
+    // A projectile of the given radius that moved from (x0,y0) to (x1,y1) this tick
+    int addSegment(CollisionLayer bodyLayer, int bodySource, int bodyIndex,
+                   double x0, double y0, double x1, double y1, double radius) {
+        int b = addBody(bodyLayer, bodySource, bodyIndex, Math.min(x0, x1) - radius, Math.min(y0, y1) - radius,
+                Math.max(x0, x1) + radius, Math.max(y0, y1) + radius);
+        segmentX0[b] = x0;
+        segmentY0[b] = y0;
+        segmentX1[b] = x1;
+        segmentY1[b] = y1;
+        segmentRadius[b] = radius;
+        return b;
+    }
+
+    private int addBody(CollisionLayer bodyLayer, int bodySource, int bodyIndex,
+                        double left, double top, double right, double bottom) {
+        if (bodyCount == layer.length) {
+            int capacity = bodyCount * 2;
+            layer = Arrays.copyOf(layer, capacity);
+            source = Arrays.copyOf(source, capacity);
+            index = Arrays.copyOf(index, capacity);
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+            dead = Arrays.copyOf(dead, capacity);
+            collider = Arrays.copyOf(collider, capacity);
+            segmentX0 = Arrays.copyOf(segmentX0, capacity);
+            segmentY0 = Arrays.copyOf(segmentY0, capacity);
+            segmentX1 = Arrays.copyOf(segmentX1, capacity);
+            segmentY1 = Arrays.copyOf(segmentY1, capacity);
+            segmentRadius = Arrays.copyOf(segmentRadius, capacity);
+        }
+        int b = bodyCount++;
+        layer[b] = bodyLayer.ordinal();
+        source[b] = bodySource;
+        index[b] = bodyIndex;
+        minX[b] = left;
+        minY[b] = top;
+        maxX[b] = right;
+        maxY[b] = bottom;
+        dead[b] = false;
+        return b;
+    }
+
+    void resolve() {
+        grid.clear();
+        for (int b = 0; b < bodyCount; b++) {
+            grid.insert(b, minX[b], minY[b], maxX[b], maxY[b]);
+        }
+
+        for (int cell = 0; cell < grid.cellCount(); cell++) {
+            for (int e = grid.first(cell); e >= 0; e = grid.next(e)) {
+                int a = grid.item(e);
+                for (int f = grid.next(e); f >= 0; f = grid.next(f)) {
+                    int b = grid.item(f);
+                    int r = matrix.rule(layer[a], layer[b]);
+                    if (r < 0 || !overlaps(a, b)) {
+                        continue;
+                    }
+                    // Bodies spanning several cells meet in each of them; only the cell
+                    // holding the top-left corner of the overlap reports the pair
+                    if (grid.cellAt(Math.max(minX[a], minX[b]), Math.max(minY[a], minY[b])) != cell) {
+                        continue;
+                    }
+                    int first = a, second = b;
+                    if (layer[a] != matrix.firstLayer(r) || (layer[a] == layer[b] && a > b)) {
+                        first = b;
+                        second = a;
+                    }
+                    pairsTested++;
+                    if (touches(first, second)) {
+                        pairsHit++;
+                        addContact(r, first, second);
+                    }
+                }
+            }
+        }
+        sortByRule();
+    }
+
+    private boolean overlaps(int a, int b) {
+        return minX[a] <= maxX[b] && minX[b] <= maxX[a] &&
+               minY[a] <= maxY[b] && minY[b] <= maxY[a];
+    }
+
+    // Exact shape test; two segments never touch, no rule pairs projectiles with each other
+    private boolean touches(int a, int b) {
+        if (collider[a] != null && collider[b] != null) {
+            return Collider.overlaps(collider[a], collider[b]);
+        }
+        if (collider[a] == null) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        if (collider[a] == null) {
+            return false;
+        }
+        return Collider.segmentHits(segmentX0[b], segmentY0[b], segmentX1[b], segmentY1[b], segmentRadius[b], collider[a]);
+    }
+
+    private void addContact(int r, int first, int second) {
+        if (contactCount == contactRule.length) {
+            int capacity = contactCount * 2;
+            contactRule = Arrays.copyOf(contactRule, capacity);
+            contactFirst = Arrays.copyOf(contactFirst, capacity);
+            contactSecond = Arrays.copyOf(contactSecond, capacity);
+        }
+        contactRule[contactCount] = r;
+        contactFirst[contactCount] = first;
+        contactSecond[contactCount] = second;
+        contactCount++;
+    }
+
+    // Stable counting sort, keeps discovery order within a rule
+    private void sortByRule() {
+        int rules = matrix.ruleCount();
+        if (ruleStart.length < rules + 1) {
+            ruleStart = new int[rules + 1];
+        }
+        if (sortedFirst.length < contactCount) {
+            sortedFirst = new int[contactRule.length];
+            sortedSecond = new int[contactRule.length];
+        }
+        Arrays.fill(ruleStart, 0, rules + 1, 0);
+        for (int k = 0; k < contactCount; k++) {
+            ruleStart[contactRule[k] + 1]++;
+        }
+        for (int r = 0; r < rules; r++) {
+            ruleStart[r + 1] += ruleStart[r];
+        }
+        for (int k = 0; k < contactCount; k++) {
+            int slot = ruleStart[contactRule[k]]++;
+            sortedFirst[slot] = contactFirst[k];
+            sortedSecond[slot] = contactSecond[k];
+        }
+    }
+
+    // Contact k in rule order
+    int contactCount() { return contactCount; }
+    int first(int k) { return sortedFirst[k]; }
+    int second(int k) { return sortedSecond[k]; }
+
+    int source(int body) { return source[body]; }
+    int index(int body) { return index[body]; }
+
+    // A body that left the world, later contacts with it are ignored
+    void kill(int body) { dead[body] = true; }
+    boolean isDead(int body) { return dead[body]; }
+
+    int getPairsTested() { return pairsTested; }
+    int getPairsHit() { return pairsHit; }
+}
@@ -0,0 +1,61 @@
+package application;
+
+import java.util.Arrays;
+
+// Deferred world changes of one tick
+// Contact handlers record what should happen (an explosion, points, damage to the player,
+// the boss or a meteor, a power-up, a ship or the boss leaving) instead of changing the
+// world while its lists are being walked.
+// GameWorld applies the commands in recording order once the contacts are done, so the
+// lists only change in one place and a second contact can never remove an object twice.
+final class CommandBuffer {
+    static final int EXPLOSION = 0;        // x, y
+    static final int SCORE = 1;            // target = points
+    static final int DAMAGE_PLAYER = 2;
+    static final int DESPAWN_WINGMAN = 3;  // target = wing-man index
+    static final int DEFEAT_BOSS = 4;
+    static final int DAMAGE_BOSS = 5;
+    static final int DAMAGE_METEOR = 6;    // target = meteor row
+    static final int POWER_UP = 7;         // target = PowerUpType ordinal
+
+    private int count;
+    private int[] op = new int[64];
+    private int[] target = new int[64];
+    private double[] x = new double[64];
+    private double[] y = new double[64];
+
+    void explosion(double px, double py) { add(EXPLOSION, 0, px, py); }
+    void score(int points) { add(SCORE, points, 0, 0); }
+    void damagePlayer() { add(DAMAGE_PLAYER, 0, 0, 0); }
+    void despawnWingman(int index) { add(DESPAWN_WINGMAN, index, 0, 0); }
+    void defeatBoss() { add(DEFEAT_BOSS, 0, 0, 0); }
+    void damageBoss() { add(DAMAGE_BOSS, 0, 0, 0); }
+    void damageMeteor(int row) { add(DAMAGE_METEOR, row, 0, 0); }
+    void powerUp(PowerUp.PowerUpType type) { add(POWER_UP, type.ordinal(), 0, 0); }
+
+    private void add(int command, int commandTarget, double px, double py) {
+        if (count == op.length) {
+            int capacity = count * 2;
+            op = Arrays.copyOf(op, capacity);
+            target = Arrays.copyOf(target, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+        }
+        op[count] = command;
+        target[count] = commandTarget;
+        x[count] = px;
+        y[count] = py;
+        count++;
+    }
+
+    // Command k in recording order
+    int size() { return count; }
+    int op(int k) { return op[k]; }
+    int target(int k) { return target[k]; }
+    double x(int k) { return x[k]; }
+    double y(int k) { return y[k]; }
+
+    void clear() {
+        count = 0;
+    }
+}
@@ -0,0 +1,160 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Enemy archetype: position, type and the shot timer of every enemy ship
+// The shot timer only holds the enemy's handle, so a shot that comes due after the
+// enemy was removed finds no row and does nothing.
+final class EnemyStore extends Archetype {
+    double[] x;
+    double[] y;
+    int[] type;
+    int[] shootTimer;
+    Collider[] collider;
+    // Shot tasks of restored rows, reused by the next restore: it drops every timer first,
+    // so none of them is still scheduled when its handle is changed
+    private ShotTask[] restoredShot;
+
+    private final TimingWheel timers;
+    private final ProjectileStore enemyBullets;
+
+    EnemyStore(int capacity, TimingWheel timers, ProjectileStore enemyBullets) {
+        super(capacity);
+        this.timers = timers;
+        this.enemyBullets = enemyBullets;
+        x = new double[capacity];
+        y = new double[capacity];
+        type = new int[capacity];
+        shootTimer = new int[capacity];
+        collider = new Collider[capacity];
+        for (int i = 0; i < capacity; i++) {
+            collider[i] = new Collider();
+        }
+        restoredShot = new ShotTask[capacity];
+    }
+
+    // Returns the new row
+    int spawn(double px, double py, Enemy.EnemyType enemyType) {
+        int row = addRow();
+        x[row] = px;
+        y[row] = py;
+        type[row] = enemyType.ordinal();
+        int handle = handle(row);
+        shootTimer[row] = timers.every(Enemy.SHOOT_TICKS, Enemy.SHOOT_TICKS, () -> shoot(handle));
+        return row;
+    }
+
+    void save(ByteBuffer out) {
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            out.putDouble(x[i]);
+            out.putDouble(y[i]);
+            out.putInt(type[i]);
+        }
+    }
+
+    // The shot timers come back one by one through restoreShot()
+    void restore(ByteBuffer in) {
+        clear();
+        for (int n = in.getInt(); n > 0; n--) {
+            int row = addRow();
+            x[row] = in.getDouble();
+            y[row] = in.getDouble();
+            type[row] = in.getInt();
+        }
+    }
+
+    void restoreShot(int row, long delay, long period) {
+        ShotTask task = restoredShot[row];
+        if (task == null) {
+            task = restoredShot[row] = new ShotTask();
+        }
+        task.handle = handle(row);
+        shootTimer[row] = timers.every(delay, period, task);
+    }
+
+    // Row whose shot timer this is, -1 if none
+    int rowOfShot(int timer) {
+        for (int i = 0; i < count; i++) {
+            if (shootTimer[i] == timer) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void shoot(int handle) {
+        int row = row(handle);
+        if (row >= 0) {
+            EnemyBullet.spawn(enemyBullets, x[row] + 40/2, y[row] + 40);
+        }
+    }
+
+    @Override
+    void remove(int row) {
+        timers.cancel(shootTimer[row]);
+        super.remove(row);
+    }
+
+    // Movement system over rows [from, to)
+    void move(int from, int to) {
+        for (int i = from; i < to; i++) {
+            y[i] += Enemy.SPEED;
+        }
+    }
+
+    Collider collider(int row) {
+        return collider[row].circle(x[row] + 20, y[row] + 20, 20);
+    }
+
+    void checksum(WorldChecksum sum) {
+        for (int i = 0; i < count; i++) {
+            sum.add(x[i]);
+            sum.add(y[i]);
+            sum.add(type[i]);
+        }
+    }
+
+    void snapshot(RenderSnapshot out) {
+        for (int i = 0; i < count; i++) {
+            // Enemies fly straight down, one step per tick
+            out.addSprite(RenderSnapshot.ENEMY, x[i], y[i] - Enemy.SPEED, x[i], y[i], type[i], 0);
+        }
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        int old = collider.length;
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        type = Arrays.copyOf(type, newCapacity);
+        shootTimer = Arrays.copyOf(shootTimer, newCapacity);
+        collider = Arrays.copyOf(collider, newCapacity);
+        for (int i = old; i < newCapacity; i++) {
+            collider[i] = new Collider();
+        }
+        restoredShot = Arrays.copyOf(restoredShot, newCapacity);
+    }
+
+    @Override
+    protected void moveRow(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        type[to] = type[from];
+        shootTimer[to] = shootTimer[from];
+        // Colliders are scratch shapes, swap them so every row keeps its own
+        Collider shape = collider[to];
+        collider[to] = collider[from];
+        collider[from] = shape;
+    }
+
+    private final class ShotTask implements TimingWheel.Task {
+        int handle;
+
+        @Override
+        public void run() {
+            shoot(handle);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package application;
+
+// Fixed-timestep accumulator
+// Real elapsed time is fed in with advance(), scaled by the GameClock, which answers how
+// many constant simulation steps are due. Shared by the FX game loop and the simulation thread.
+final class FixedStep {
+    static final int TICKS_PER_SECOND = 60;  // Entity speeds are tuned per tick at 60 Hz
+    static final long STEP_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_STEPS = 5;  // Catch-up limit, avoids the "spiral of death"
+
+    private final GameClock clock;
+    private long lastTime = -1;
+    private long accumulator = 0;
+    private long droppedNanos;
+
+    FixedStep(GameClock clock) {
+        this.clock = clock;
+    }
+
+    // Number of steps to run for the time elapsed since the last call
+    int advance(long now) {
+        if (lastTime < 0) {
+            lastTime = now;
+        }
+        accumulator += clock.scale(now - lastTime);
+        lastTime = now;
+
+        if (clock.isPaused()) {
+            accumulator = 0;
+            return clock.takeStep() ? 1 : 0;  // Frame stepping
+        }
+
+        int steps = (int) Math.min(accumulator / STEP_NANOS, MAX_STEPS);
+        accumulator -= steps * STEP_NANOS;
+        if (accumulator >= STEP_NANOS) {
+            // Too far behind: drop the backlog instead of stalling the next frames,
+            // the game slows down rather than jumping ahead
+            droppedNanos += accumulator - accumulator % STEP_NANOS;
+            accumulator %= STEP_NANOS;
+        }
+        return steps;
+    }
+
+    // Advance the clock to the next step
+    void nextStep() {
+        clock.advance();
+    }
+
+    // Real time left until the next step is due
+    long nanosUntilNextStep() {
+        if (clock.isPaused()) {
+            return STEP_NANOS;
+        }
+        return (long) ((STEP_NANOS - accumulator) / clock.getTimeScale());
+    }
+
+    // Fraction of the next step already accumulated, for blending the last two ticks
+    // While paused the latest tick is shown as it is.
+    double alpha() {
+        if (clock.isPaused()) {
+            return 1.0;
+        }
+        return (double) accumulator / STEP_NANOS;
+    }
+
+    // Backlog dropped since the last call
+    long takeDroppedNanos() {
+        long dropped = droppedNanos;
+        droppedNanos = 0;
+        return dropped;
+    }
+}
@@ -0,0 +1,75 @@
+package application;
+
+// Game clock
+// Simulated time, advanced once per tick and handed to every entity instead of each one
+// calling System.nanoTime(). Also controls pause, slow motion and single-stepping;
+// those controls may be changed from the FX thread while the simulation runs elsewhere.
+final class GameClock {
+    static final double SLOW_MOTION = 0.25;
+
+    private long now;   // Simulated time of the current tick, in nanoseconds
+    private long ticks; // Ticks simulated so far
+
+    private volatile boolean paused = false;
+    private volatile double timeScale = 1.0;
+    private volatile int pendingSteps = 0;
+
+    GameClock(long startTime) {
+        this.now = startTime;
+    }
+
+    // Move on to the next tick, only called by the simulation
+    long advance() {
+        now += FixedStep.STEP_NANOS;
+        ticks++;
+        return now;
+    }
+
+    // Continue a saved game
+    void restore(long savedNow, long savedTicks) {
+        now = savedNow;
+        ticks = savedTicks;
+    }
+
+    long now() { return now; }
+    long ticks() { return ticks; }
+
+    // Simulated time that passes during the given real time
+    long scale(long realNanos) {
+        if (paused) {
+            return 0;
+        }
+        return timeScale == 1.0 ? realNanos : (long) (realNanos * timeScale);
+    }
+
+    void togglePause() {
+        paused = !paused;
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    // Run exactly one tick while paused
+    synchronized void requestStep() {
+        if (paused) {
+            pendingSteps++;
+        }
+    }
+
+    synchronized boolean takeStep() {
+        if (pendingSteps == 0) {
+            return false;
+        }
+        pendingSteps--;
+        return true;
+    }
+
+    void toggleSlowMotion() {
+        timeScale = timeScale == 1.0 ? SLOW_MOTION : 1.0;
+    }
+
+    double getTimeScale() {
+        return timeScale;
+    }
+}
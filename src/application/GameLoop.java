@@ -0,0 +1,41 @@
+package application;
+
+import javafx.animation.AnimationTimer;
+
+// Game loop on the JavaFX Application Thread
+// AnimationTimer pulses only feed a FixedStep accumulator; the simulation always
+// advances in constant steps, so game speed no longer depends on the frame rate.
+abstract class GameLoop extends AnimationTimer {
+    private final FixedStep step;
+    private final LoopStats simStats;
+    private final LoopStats frameStats;
+
+    GameLoop(GameClock clock, LoopStats simStats, LoopStats frameStats) {
+        this.step = new FixedStep(clock);
+        this.simStats = simStats;
+        this.frameStats = frameStats;
+    }
+
+    // Advance the simulation by one fixed step, the clock has already moved on
+    protected abstract void update();
+
+    // Draw the current state, called once per pulse
+    // alpha is how far the pulse lies between the last tick and the next one.
+    protected abstract void render(double alpha);
+
+    @Override
+    public void handle(long now) {
+        int steps = step.advance(now);
+        long simStart = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            step.nextStep();
+            update();
+        }
+        long renderStart = System.nanoTime();
+        render(step.alpha());
+        long renderEnd = System.nanoTime();
+
+        simStats.record(now, steps, renderStart - simStart, step.takeDroppedNanos());
+        frameStats.record(now, 1, renderEnd - renderStart, 0);
+    }
+}
@@ -2,22 +2,30 @@ package application;
 
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 // Boss class
 class Boss {
     private double x, y;
+    private double previousX;  // Before this tick's move, for render interpolation
     private BossType type;
     private int health;
     private static final double SIZE_WIDTH = 200;
     private static final double SIZE_HEIGHT = 150;
     private double dx = 1;
-    private long lastShootTime = 0;
-    private static final long SHOOT_DELAY = 1_000_000_000L;
+    private static final long SHOOT_TICKS = TimingWheel.ticks(1_000_000_000L);
     private boolean movingRight = true;
+    private final Collider collider = new Collider(2);
     private int attackPattern = 0;
-    private long lastPatternChange = 0;
-    private static final long PATTERN_CHANGE_DELAY = 5_000_000_000L;
+    private static final long PATTERN_CHANGE_TICKS = TimingWheel.ticks(5_000_000_000L);
+    private ProjectileStore bossBullets;
+    private GameClock clock;
+    private int patternTimer, shootTimer;
+    private final TimingWheel.Task patternTask = this::nextPattern;  // Kept, so rescheduling allocates nothing
+    private final TimingWheel.Task shootTask = this::shoot;
+    static final int PATTERN_TIMER = 0;  // Which timer, for saves
+    static final int SHOOT_TIMER = 1;
     
     public enum BossType { 
         MOTHERSHIP(10),  // The first boss, health value 10
@@ -33,15 +41,51 @@ class Boss {
             return maxHealth;
         }
     }
+    private static final BossType[] TYPES = BossType.values();
     
     public Boss(BossType type) {
         this.type = type;
         this.health = type.getMaxHealth();  // Set initial health based on boss type
         this.x = 400 - SIZE_WIDTH/2;
         this.y = 50;
+        this.previousX = x;
     }
     
-    public void update(List<BossBullet> bossBullets) {
+    // Pattern changes and shots run on the wheel, both start on the coming tick
+    public void arm(TimingWheel timers, ProjectileStore bossBullets, GameClock clock) {
+        this.bossBullets = bossBullets;
+        this.clock = clock;
+        patternTimer = timers.every(1, PATTERN_CHANGE_TICKS, patternTask);
+        shootTimer = timers.every(1, SHOOT_TICKS, shootTask);
+    }
+    
+    // PATTERN_TIMER, SHOOT_TIMER or -1 for a timer that is not the boss's
+    public int timerOf(int handle) {
+        if (handle == patternTimer) return PATTERN_TIMER;
+        if (handle == shootTimer) return SHOOT_TIMER;
+        return -1;
+    }
+    
+    // A restored boss gets its timers back one by one, instead of arm()
+    public void restoreTimer(TimingWheel timers, int which, long delay, long period) {
+        if (which == PATTERN_TIMER) {
+            patternTimer = timers.every(delay, period, patternTask);
+        } else {
+            shootTimer = timers.every(delay, period, shootTask);
+        }
+    }
+    
+    private void nextPattern() {
+        attackPattern = (attackPattern + 1) % 3;
+    }
+    
+    public void disarm(TimingWheel timers) {
+        timers.cancel(patternTimer);
+        timers.cancel(shootTimer);
+    }
+    
+    public void update() {
+        previousX = x;
         if (movingRight) {
             x += dx;
             if (x > 600 - SIZE_WIDTH) movingRight = false;
@@ -49,46 +93,76 @@ class Boss {
             x -= dx;
             if (x < 0) movingRight = true;
         }
-        
-        long now = System.nanoTime();
-        if (now - lastPatternChange > PATTERN_CHANGE_DELAY) {
-            attackPattern = (attackPattern + 1) % 3;
-            lastPatternChange = now;
-        }
-        
-        if (now - lastShootTime > SHOOT_DELAY) {
-            switch (attackPattern) {
-                case 0: // Normal attack
-                    bossBullets.add(new BossBullet(x + SIZE_WIDTH/2, y + SIZE_HEIGHT, 0, 5));
-                    break;
-                case 1: // Spread
-                    for (int i = -5; i <= 5; i++) {
-                        bossBullets.add(new BossBullet(x + SIZE_WIDTH/2, y + SIZE_HEIGHT, i * 0.3, 5));
-                    }
-                    break;
-                case 2: // Sweep
-                    double angle = Math.sin(now * 0.000000001) * 2;
-                    bossBullets.add(new BossBullet(x + SIZE_WIDTH/2, y + SIZE_HEIGHT, angle, 5));
-                    break;
-            }
-            lastShootTime = now;
-        }
     }
     
-    public void render(GraphicsContext gc) {
-        switch(type) {
-            case MOTHERSHIP: renderMothership(gc); break;
-            case FORTRESS: renderFortress(gc); break;
+    private void shoot() {
+        long now = clock.now();
+        switch (attackPattern) {
+            case 0: // Normal attack
+                BossBullet.spawn(bossBullets, x + SIZE_WIDTH/2, y + SIZE_HEIGHT, 0, 5);
+                break;
+            case 1: // Spread
+                for (int i = -5; i <= 5; i++) {
+                    BossBullet.spawn(bossBullets, x + SIZE_WIDTH/2, y + SIZE_HEIGHT, i * 0.3, 5);
+                }
+                break;
+            case 2: // Sweep
+                double angle = TrigTable.SHARED.sin(now * 0.000000001) * 2;
+                BossBullet.spawn(bossBullets, x + SIZE_WIDTH/2, y + SIZE_HEIGHT, angle, 5);
+                break;
         }
+    }
+    
+    public void checksum(WorldChecksum sum) {
+        sum.add(x);
+        sum.add(y);
+        sum.add(health);
+        sum.add(attackPattern);
+        sum.add(movingRight);
+    }
+    
+    public void save(ByteBuffer out) {
+        out.putInt(type.ordinal());
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putInt(health);
+        out.put((byte) (movingRight ? 1 : 0));
+        out.putInt(attackPattern);
+    }
+    
+    // Overwrites every saved field, so a rewind can bring back the same Boss object
+    public void restore(ByteBuffer in, ProjectileStore bossBullets, GameClock clock) {
+        type = TYPES[in.getInt()];
+        x = previousX = in.getDouble();
+        y = in.getDouble();
+        health = in.getInt();
+        movingRight = in.get() != 0;
+        attackPattern = in.getInt();
+        this.bossBullets = bossBullets;
+        this.clock = clock;
+    }
+    
+    public void snapshot(RenderSnapshot out) {
+        out.addSprite(RenderSnapshot.BOSS, previousX, y, x, y, type.ordinal(), health);
+    }
+    
+    // Hull of each BossType, the mothership's dome reaches above y
+    static final Sprite[] SPRITES = {
+        new Sprite(0, -SIZE_HEIGHT * 0.1, SIZE_WIDTH, SIZE_HEIGHT * 0.7, Boss::renderMothership),
+        new Sprite(0, 0, SIZE_WIDTH, SIZE_HEIGHT, Boss::renderFortress)
+    };
+    
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        BossType type = TYPES[s.variant[i]];
+        double x = s.x[i], y = s.y[i];
+        q.sprite(0, SPRITES[type.ordinal()], x, y);
         
         // Health bar
-        gc.setFill(Color.RED);
-        gc.fillRect(x, y - 20, SIZE_WIDTH * health / type.getMaxHealth(), 10);
-        gc.setStroke(Color.WHITE);
-        gc.strokeRect(x, y - 20, SIZE_WIDTH, 10);
+        q.fillRect(1, Color.RED, x, y - 20, SIZE_WIDTH * s.value[i] / type.getMaxHealth(), 10);
+        q.strokeRect(2, Color.WHITE, x, y - 20, SIZE_WIDTH, 10);
     }
     
-    private void renderMothership(GraphicsContext gc) {
+    private static void renderMothership(GraphicsContext gc, double x, double y) {
         gc.setFill(Color.SILVER);
         gc.fillOval(x, y, SIZE_WIDTH, SIZE_HEIGHT * 0.6);
         gc.setFill(Color.DARKGRAY);
@@ -97,7 +171,7 @@ class Boss {
         gc.fillOval(x + SIZE_WIDTH * 0.4, y + SIZE_HEIGHT * 0.2, SIZE_WIDTH * 0.2, SIZE_HEIGHT * 0.2);
     }
     
-    private void renderFortress(GraphicsContext gc) {
+    private static void renderFortress(GraphicsContext gc, double x, double y) {
         gc.setFill(Color.DARKGRAY);
         gc.fillRect(x, y, SIZE_WIDTH, SIZE_HEIGHT);
         gc.setFill(Color.RED);
@@ -113,68 +187,48 @@ class Boss {
     
     public void damage() { health--; }
     public boolean isDestroyed() { return health <= 0; }
-    public boolean intersects(Bullet bullet) {
-        return bullet.getX() >= x && bullet.getX() <= x + SIZE_WIDTH &&
-               bullet.getY() >= y && bullet.getY() <= y + SIZE_HEIGHT;
+    // Mothership: saucer and dome, fortress: its whole block
+    public Collider collider() {
+        if (type == BossType.MOTHERSHIP) {
+            collider.part(0).box(x, y, x + SIZE_WIDTH, y + SIZE_HEIGHT * 0.6);
+            collider.part(1).box(x + SIZE_WIDTH * 0.2, y - SIZE_HEIGHT * 0.1, x + SIZE_WIDTH * 0.8, y + SIZE_HEIGHT * 0.2);
+            return collider.compound(2);
+        }
+        return collider.box(x, y, x + SIZE_WIDTH, y + SIZE_HEIGHT);
     }
     public double getX() { return x; }
     public double getY() { return y; }
     public BossType getType() { return type; }
-    public boolean intersects(Player player) {
-        return player.getX() < x + 200 && player.getX() + 40 > x &&
-               player.getY() < y + 150 && player.getY() + 40 > y;
-    }
-    public boolean intersects(WingmanShip wingman) {
-        return wingman.getX() < x + 200 && wingman.getX() + 40 > x &&
-               wingman.getY() < y + 150 && wingman.getY() + 40 > y;
-    }
     public int getHealth() { return health; }
 }
 
 // BossBullet class
-class BossBullet {
-    private double x, y, dx, dy;
+// Boss bullets live in a ProjectileStore, this class only holds their behaviour
+final class BossBullet {
     private static final double SIZE = 10;
+    static final double RADIUS = SIZE/2;  // Collision radius around x, y
     
-    public BossBullet(double x, double y, double angle, double speed) {
-        this.x = x;
-        this.y = y;
-        this.dx = Math.sin(angle) * speed;
-        this.dy = Math.cos(angle) * speed;
-    }
+    private BossBullet() {}
     
-    public void update() {
-        x += dx;
-        y += dy;
-    }
-    
-    public void render(GraphicsContext gc) {
-        gc.setFill(Color.RED);
-        gc.fillOval(x - SIZE/2, y - SIZE/2, SIZE, SIZE);
-        gc.setGlobalAlpha(0.3);
-        gc.setFill(Color.ORANGE);
-        gc.fillOval(x - SIZE, y - SIZE, SIZE * 2, SIZE * 2);
-        gc.setGlobalAlpha(1.0);
+    public static void spawn(ProjectileStore bossBullets, double x, double y, double angle, double speed) {
+        bossBullets.add(x, y, TrigTable.SHARED.sin(angle) * speed, TrigTable.SHARED.cos(angle) * speed);
     }
     
-    public boolean intersects(Player player) {
-        return player.getX() + 40 >= x - SIZE/2 && player.getX() <= x + SIZE/2 &&
-               player.getY() + 40 >= y - SIZE/2 && player.getY() <= y + SIZE/2;
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        q.fillOval(0, Color.RED, x - SIZE/2, y - SIZE/2, SIZE, SIZE);
+        q.fillOval(1, Color.ORANGE, 0.3, x - SIZE, y - SIZE, SIZE * 2, SIZE * 2);
     }
     
-    public boolean isOffscreen() {
+    public static boolean isOffscreen(double x, double y) {
         return y > 600 || y < 0 || x < 0 || x > 800;
     }
-    
-    public boolean intersects(WingmanShip wingman) {
-        return wingman.getX() + 40 >= x - SIZE/2 && wingman.getX() <= x + SIZE/2 &&
-               wingman.getY() + 40 >= y - SIZE/2 && wingman.getY() <= y + SIZE/2;
-    }
 }
 
 // Player class
 class Player {
     private double x, y, dx, dy;
+    private double previousX, previousY;  // Before this tick's move, for render interpolation
     private int health = 5;
     private boolean invincible = false;
     private long invincibleStartTime = 0;
@@ -182,15 +236,21 @@ class Player {
     private long powerUpStartTime = 0;
     private static final long POWER_UP_DURATION = 10_000_000_000L;
     private static final long INVINCIBLE_DURATION = 5_000_000_000L;
+    private double flameHeight = 10;
+    private final Collider collider = new Collider(2);
     
     public Player(double x, double y) {
         this.x = x;
         this.y = y;
+        this.previousX = x;
+        this.previousY = y;
         this.dx = 0;
         this.dy = 0;
     }
     
     public void update() {
+        previousX = x;
+        previousY = y;
         double newX = x + dx;
         double newY = y + dy;
         
@@ -200,6 +260,8 @@ class Player {
     }
     
     public void update(List<WingmanShip> wingmen) {
+        previousX = x;
+        previousY = y;
         double newX = x + dx;
         double newY = y + dy;
         boolean canMove = true;
@@ -227,76 +289,115 @@ class Player {
         }
     }
     
-    public void render(GraphicsContext gc) {
-        gc.save();
+    // Engine flame flicker, rolled by the simulation so replays draw the same frames
+    public void flicker(GameRandom random) {
+        flameHeight = 10 + random.nextDouble() * 5;
+    }
+    
+    public void checksum(WorldChecksum sum) {
+        sum.add(x);
+        sum.add(y);
+        sum.add(health);
+        sum.add(invincible);
+        sum.add(currentPowerUp == null ? -1 : currentPowerUp.ordinal());
+    }
+    
+    public void save(ByteBuffer out) {
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putDouble(dx);
+        out.putDouble(dy);
+        out.putInt(health);
+        out.put((byte) (invincible ? 1 : 0));
+        out.putLong(invincibleStartTime);
+        out.putInt(PowerUp.ordinalOf(currentPowerUp));
+        out.putLong(powerUpStartTime);
+        out.putDouble(flameHeight);
+    }
+    
+    public void restore(ByteBuffer in) {
+        x = previousX = in.getDouble();
+        y = previousY = in.getDouble();
+        dx = in.getDouble();
+        dy = in.getDouble();
+        health = in.getInt();
+        invincible = in.get() != 0;
+        invincibleStartTime = in.getLong();
+        currentPowerUp = PowerUp.typeOf(in.getInt());
+        powerUpStartTime = in.getLong();
+        flameHeight = in.getDouble();
+    }
+    
+    public void snapshot(RenderSnapshot out) {
+        out.addSprite(RenderSnapshot.PLAYER, previousX, previousY, x, y, invincible ? 1 : 0, flameHeight);
+    }
+    
+    // Everything but the flickering flame, from the nose at y - 10 to the engine glow
+    static final Sprite BODY = new Sprite(0, -10, 40, 65, Player::renderBody);
+    
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        boolean invincible = s.variant[i] != 0;
         
         // Only render when not invincible or during flash effect
-        if (!invincible || System.currentTimeMillis() % 200 < 100) {
-            // Main body (white)
-            gc.setFill(Color.WHITE);
-            gc.fillRect(x + 15, y, 10, 40);  // Central body
-            
-            // Orange top
-            gc.setFill(Color.ORANGE);
-            gc.fillPolygon(
-                new double[]{x + 15, x + 25, x + 20},
-                new double[]{y, y, y - 10},
-                3
-            );
-            
-            // Red wings
-            gc.setFill(Color.RED);
-            // Left wing
-            gc.fillPolygon(
-                new double[]{x, x + 15, x + 15, x},
-                new double[]{y + 25, y + 15, y + 35, y + 40},
-                4
-            );
-            // Right wing
-            gc.fillPolygon(
-                new double[]{x + 40, x + 25, x + 25, x + 40},
-                new double[]{y + 25, y + 15, y + 35, y + 40},
-                4
-            );
+        if (!invincible || s.time / 1_000_000 % 200 < 100) {
+            q.sprite(0, BODY, x, y);
             
-            // Engine effect
-            gc.setFill(Color.YELLOW);
-            gc.fillOval(x + 15, y + 40, 10, 15);
-            gc.setGlobalAlpha(0.6);
-            double flameHeight = 10 + Math.random() * 5;
-            gc.setFill(Color.ORANGE);
-            gc.fillOval(x + 15, y + 45, 10, flameHeight);
-            gc.setGlobalAlpha(1.0);
-        }
-        
-        // Health display
-        gc.setFill(Color.RED);
-        for (int i = 0; i < health; i++) {
-            gc.fillOval(10 + i * 25, 20, 20, 20);
+            // Engine flame
+            double flameHeight = s.value[i];
+            q.fillOval(1, Color.ORANGE, 0.6, x + 15, y + 45, 10, flameHeight);
         }
         
         // Invincible effect
         if (invincible) {
-            gc.setGlobalAlpha(0.3);
-            gc.setFill(Color.CYAN);
-            gc.fillOval(x - 10, y - 10, 60, 60);
-            gc.setGlobalAlpha(1.0);
+            q.fillOval(2, Color.CYAN, 0.3, x - 10, y - 10, 60, 60);
         }
+    }
+    
+    private static void renderBody(GraphicsContext gc, double x, double y) {
+        // Main body (white)
+        gc.setFill(Color.WHITE);
+        gc.fillRect(x + 15, y, 10, 40);  // Central body
+        
+        // Orange top
+        gc.setFill(Color.ORANGE);
+        gc.fillPolygon(
+            new double[]{x + 15, x + 25, x + 20},
+            new double[]{y, y, y - 10},
+            3
+        );
         
-        gc.restore();
+        // Red wings
+        gc.setFill(Color.RED);
+        // Left wing
+        gc.fillPolygon(
+            new double[]{x, x + 15, x + 15, x},
+            new double[]{y + 25, y + 15, y + 35, y + 40},
+            4
+        );
+        // Right wing
+        gc.fillPolygon(
+            new double[]{x + 40, x + 25, x + 25, x + 40},
+            new double[]{y + 25, y + 15, y + 35, y + 40},
+            4
+        );
+        
+        // Engine effect
+        gc.setFill(Color.YELLOW);
+        gc.fillOval(x + 15, y + 40, 10, 15);
     }
     
-    public void activatePowerUp(PowerUp.PowerUpType type) {
+    public void activatePowerUp(PowerUp.PowerUpType type, GameClock clock) {
         currentPowerUp = type;
-        powerUpStartTime = System.nanoTime();
+        powerUpStartTime = clock.now();
         if (type == PowerUp.PowerUpType.INVINCIBLE) {
             invincible = true;
-            invincibleStartTime = System.nanoTime();
+            invincibleStartTime = clock.now();
         }
     }
     
-    public void checkPowerUpExpiration() {
-        long now = System.nanoTime();
+    public void checkPowerUpExpiration(GameClock clock) {
+        long now = clock.now();
         if (currentPowerUp != null && now - powerUpStartTime > POWER_UP_DURATION) {
             currentPowerUp = null;
         }
@@ -313,6 +414,12 @@ class Player {
     public void setDy(double dy) { this.dy = dy; }
     public double getX() { return x; }
     public double getY() { return y; }
+    // Fuselage with its nose, and the wings
+    public Collider collider() {
+        collider.part(0).box(x + 15, y - 10, x + 25, y + 40);
+        collider.part(1).box(x, y + 15, x + 40, y + 40);
+        return collider.compound(2);
+    }
     public int getHealth() { return health; }
     public PowerUp.PowerUpType getCurrentPowerUp() { return currentPowerUp; }
     public boolean isInvincible() { return invincible; }
@@ -324,12 +431,10 @@ class Player {
 }
 
 // Enemy class
-class Enemy {
-    private double x, y;
-    private static final double SPEED = 1;
-    private EnemyType type;
-    private long lastShot = 0;
-    private static final long SHOOT_INTERVAL = 1_000_000_000L;  // Shoot every 2 seconds
+// Enemies live in an EnemyStore, this class only holds their behaviour
+final class Enemy {
+    static final double SPEED = 1;
+    static final long SHOOT_TICKS = TimingWheel.ticks(1_000_000_000L);  // Shoot every second
     
     public enum EnemyType {
         FIGHTER,
@@ -337,46 +442,20 @@ class Enemy {
         SCOUT
     }
     
-    public Enemy(double x, double y) {
-        this.x = x;
-        this.y = y;
-        EnemyType[] types = EnemyType.values();
-        this.type = types[(int)(Math.random() * types.length)];
-        this.lastShot = System.nanoTime();
-    }
+    private Enemy() {}
     
-    public void update() {
-        y += SPEED;
-    }
+    // One per EnemyType, in declaration order
+    static final Sprite[] SPRITES = {
+        new Sprite(0, 0, 40, 40, Enemy::renderFighter),
+        new Sprite(0, 0, 40, 40, Enemy::renderBomber),
+        new Sprite(0, 0, 40, 40, Enemy::renderScout)
+    };
     
-    public boolean shouldShoot() {
-        long now = System.nanoTime();
-        if (now - lastShot > SHOOT_INTERVAL) {
-            lastShot = now;
-            return true;
-        }
-        return false;
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        q.sprite(0, SPRITES[s.variant[i]], s.x[i], s.y[i]);
     }
     
-    public EnemyBullet shoot() {
-        return new EnemyBullet(x + 40/2, y + 40);
-    }
-    
-    public void render(GraphicsContext gc) {
-        switch(type) {
-            case FIGHTER:
-                renderFighter(gc);
-                break;
-            case BOMBER:
-                renderBomber(gc);
-                break;
-            case SCOUT:
-                renderScout(gc);
-                break;
-        }
-    }
-    
-    private void renderFighter(GraphicsContext gc) {
+    private static void renderFighter(GraphicsContext gc, double x, double y) {
         gc.setFill(Color.RED);
         gc.fillPolygon(
             new double[]{x + 20, x + 40, x + 20, x},
@@ -393,7 +472,7 @@ class Enemy {
         gc.fillOval(x + 15, y, 10, 15);
     }
     
-    private void renderBomber(GraphicsContext gc) {
+    private static void renderBomber(GraphicsContext gc, double x, double y) {
         gc.setFill(Color.DARKRED);
         gc.fillOval(x + 10, y, 20, 40);
         gc.fillRect(x, y + 15, 40, 10);
@@ -401,7 +480,7 @@ class Enemy {
         gc.fillOval(x + 15, y + 10, 10, 10);
     }
     
-    private void renderScout(GraphicsContext gc) {
+    private static void renderScout(GraphicsContext gc, double x, double y) {
         gc.setFill(Color.ORANGE);
         gc.fillPolygon(
             new double[]{x + 20, x + 35, x + 20, x + 5},
@@ -411,101 +490,58 @@ class Enemy {
         gc.setFill(Color.YELLOW);
         gc.fillRect(x, y + 18, 40, 5);
     }
-    
-    public boolean intersects(Bullet bullet) {
-        return bullet.getX() >= x && bullet.getX() <= x + 40 &&
-               bullet.getY() >= y && bullet.getY() <= y + 40;
-    }
-    
-    public boolean intersects(Player player) {
-        return player.getX() + 40 >= x && player.getX() <= x + 40 &&
-               player.getY() + 40 >= y && player.getY() <= y + 40;
-    }
-    
-    public double getX() { return x; }
-    public double getY() { return y; }
-    
-    public boolean intersects(WingmanShip wingman) {
-        double distance = Math.sqrt(Math.pow(x - wingman.getX(), 2) + Math.pow(y - wingman.getY(), 2));
-        return distance < (40 + 20);  // 40 is the size of the ship, 20 is the enemy collision radius
-    }
 }
 
 // EnemyBullet class
-class EnemyBullet {
-    private double x, y;
+// Enemy bullets live in a ProjectileStore, this class only holds their behaviour
+final class EnemyBullet {
     private static final double SPEED = 5;  // Enemy bullet speed
     private static final int SIZE = 5;      // Enemy bullet size
+    static final double RADIUS = SIZE/2.0;  // Collision radius around x, y
     
-    public EnemyBullet(double x, double y) {
-        this.x = x;
-        this.y = y;
-    }
+    private EnemyBullet() {}
     
-    public void update() {
-        y += SPEED;  // Move downwards
+    public static void spawn(ProjectileStore enemyBullets, double x, double y) {
+        enemyBullets.add(x, y, 0, SPEED);  // Move downwards
     }
     
-    public void render(GraphicsContext gc) {
-        gc.setFill(Color.RED);
-        gc.fillOval(x, y, SIZE, SIZE);
-        gc.setGlobalAlpha(0.3);
-        gc.fillOval(x - 1, y - 1, SIZE + 2, SIZE + 2);
-        gc.setGlobalAlpha(1.0);
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        q.fillOval(0, Color.RED, x, y, SIZE, SIZE);
+        q.fillOval(1, Color.RED, 0.3, x - 1, y - 1, SIZE + 2, SIZE + 2);
     }
     
-    public boolean isOffscreen(double height) {
+    public static boolean isOffscreen(double y, double height) {
         return y > height;
     }
-    
-    public boolean intersects(Player player) {
-        double distance = Math.sqrt(Math.pow(x - player.getX(), 2) + Math.pow(y - player.getY(), 2));
-        return distance < (SIZE + 20);  // 20 is the player collision radius
-    }
-    
-    public double getX() { return x; }
-    public double getY() { return y; }
-    
-    public boolean intersects(WingmanShip wingman) {
-        return wingman.getX() + 40 >= x - SIZE/2 && wingman.getX() <= x + SIZE/2 &&
-               wingman.getY() + 40 >= y - SIZE/2 && wingman.getY() <= y + SIZE/2;
-    }
 }
 
 // Bullet class
-class Bullet {
-    private double x, y, dx = 0;
+// Player and wing-man bullets live in a ProjectileStore, this class only holds their behaviour
+final class Bullet {
     private static final double SPEED = 7;
+    static final double RADIUS = 2.5;  // Collision radius around x, y
     
-    public Bullet(double x, double y) {
-        this.x = x;
-        this.y = y;
-    }
+    private Bullet() {}
     
-    public Bullet(double x, double y, double spread) {
-        this.x = x;
-        this.y = y;
-        this.dx = spread * 2;
+    public static void spawn(ProjectileStore bullets, double x, double y) {
+        bullets.add(x, y, 0, -SPEED);
     }
     
-    public void update() {
-        y -= SPEED;
-        x += dx;
+    public static void spawn(ProjectileStore bullets, double x, double y, double spread) {
+        bullets.add(x, y, spread * 2, -SPEED);
     }
     
-    public void render(GraphicsContext gc) {
-        gc.setFill(Color.WHITE);
-        gc.fillOval(x - 1, y - 1, 7, 12);
-        gc.setFill(Color.YELLOW);
-        gc.fillOval(x, y, 5, 10);
-        gc.setGlobalAlpha(0.3);
-        gc.setFill(Color.YELLOW);
-        gc.fillOval(x - 2, y - 2, 9, 14);
-        gc.setGlobalAlpha(1.0);
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        q.fillOval(0, Color.WHITE, x - 1, y - 1, 7, 12);
+        q.fillOval(1, Color.YELLOW, x, y, 5, 10);
+        q.fillOval(2, Color.YELLOW, 0.3, x - 2, y - 2, 9, 14);
     }
     
-    public double getX() { return x; }
-    public double getY() { return y; }
+    public static boolean isOffscreen(double y) {
+        return y < 0;
+    }
 }
 
 // PowerUp class
@@ -513,51 +549,88 @@ class PowerUp {
     private double x, y;
     private PowerUpType type;
     private static final double SIZE = 20;
+    private static final double SPEED = 1.5;
+    private final Collider collider = new Collider();
     
     public enum PowerUpType {
         TRIPLE_SHOT,
         SPREAD_SHOT,
         INVINCIBLE
     }
+    static final PowerUpType[] TYPES = PowerUpType.values();  // values() copies the array on every call
     
-    public PowerUp(double x, double y) {
+    public PowerUp(double x, double y, GameRandom random) {
         this.x = x;
         this.y = y;
-        PowerUpType[] types = PowerUpType.values();
-        this.type = types[(int)(Math.random() * types.length)];
+        this.type = TYPES[random.nextInt(TYPES.length)];
+    }
+    
+    // Empty, for the pool that restore() fills in
+    PowerUp() {
+    }
+    
+    // Saved power-up types, -1 for none
+    static int ordinalOf(PowerUpType type) {
+        return type == null ? -1 : type.ordinal();
+    }
+    
+    static PowerUpType typeOf(int ordinal) {
+        return ordinal < 0 ? null : TYPES[ordinal];
     }
     
     public void update() {
-        y += 1.5;
+        y += SPEED;
     }
     
-    public void render(GraphicsContext gc) {
-        switch(type) {
+    public void checksum(WorldChecksum sum) {
+        sum.add(x);
+        sum.add(y);
+        sum.add(type.ordinal());
+    }
+    
+    public void save(ByteBuffer out) {
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putInt(type.ordinal());
+    }
+    
+    public PowerUp restore(ByteBuffer in) {
+        x = in.getDouble();
+        y = in.getDouble();
+        type = TYPES[in.getInt()];
+        return this;
+    }
+    
+    public void snapshot(RenderSnapshot out) {
+        out.addSprite(RenderSnapshot.POWER_UP, x, y - SPEED, x, y, type.ordinal(), 0);
+    }
+    
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        Color color = null;
+        switch(TYPES[s.variant[i]]) {
             case TRIPLE_SHOT:
-                gc.setFill(Color.YELLOW);
+                color = Color.YELLOW;
                 break;
             case SPREAD_SHOT:
-                gc.setFill(Color.PURPLE);
+                color = Color.PURPLE;
                 break;
             case INVINCIBLE:
-                gc.setFill(Color.CYAN);
+                color = Color.CYAN;
                 break;
         }
         
-        gc.fillOval(x, y, SIZE, SIZE);
-        gc.setGlobalAlpha(0.3);
-        gc.fillOval(x - 5, y - 5, SIZE + 10, SIZE + 10);
-        gc.setGlobalAlpha(1.0);
-        gc.setStroke(Color.WHITE);
-        gc.strokeOval(x, y, SIZE, SIZE);
+        q.fillOval(0, color, x, y, SIZE, SIZE);
+        q.fillOval(1, color, 0.3, x - 5, y - 5, SIZE + 10, SIZE + 10);
+        q.strokeOval(2, Color.WHITE, x, y, SIZE, SIZE);
     }
     
-    public boolean intersects(Bullet bullet) {
-        return bullet.getX() >= x && bullet.getX() <= x + SIZE &&
-               bullet.getY() >= y && bullet.getY() <= y + SIZE;
+    public Collider collider() {
+        return collider.circle(x + SIZE/2, y + SIZE/2, SIZE/2);
     }
     
     public PowerUpType getType() { return type; }
+    public double getX() { return x; }
     public double getY() { return y; }
 }
 
@@ -570,11 +643,13 @@ class Explosion {
     private int frameDelay;
     private static final double SIZE = 40;
     
-    public Explosion(double x, double y) {
+    // Explosions are pooled, a new or reused one is set up with reset()
+    public Explosion reset(double x, double y) {
         this.x = x;
         this.y = y;
         this.frame = 0;
         this.frameDelay = FRAME_DELAY;
+        return this;
     }
     
     public void update() {
@@ -585,23 +660,34 @@ class Explosion {
         }
     }
     
-    public void render(GraphicsContext gc) {
+    public void save(ByteBuffer out) {
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putInt(frame);
+        out.putInt(frameDelay);
+    }
+    
+    public Explosion restore(ByteBuffer in) {
+        x = in.getDouble();
+        y = in.getDouble();
+        frame = in.getInt();
+        frameDelay = in.getInt();
+        return this;
+    }
+    
+    public void snapshot(RenderSnapshot out) {
+        out.addSprite(RenderSnapshot.EXPLOSION, x, y, frame, 0);
+    }
+    
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        int frame = s.variant[i];
         double alpha = 1.0 - (double)frame / TOTAL_FRAMES;
         double size = SIZE * (1 + (double)frame / TOTAL_FRAMES);
         
-        gc.save();
-        gc.setGlobalAlpha(alpha);
-        
-        gc.setFill(Color.WHITE);
-        gc.fillOval(x + SIZE/2 - size/2, y + SIZE/2 - size/2, size, size);
-        
-        gc.setFill(Color.ORANGE);
-        gc.fillOval(x + SIZE/2 - size/3, y + SIZE/2 - size/3, size/1.5, size/1.5);
-        
-        gc.setFill(Color.YELLOW);
-        gc.fillOval(x + SIZE/2 - size/4, y + SIZE/2 - size/4, size/2, size/2);
-        
-        gc.restore();
+        q.fillOval(0, Color.WHITE, alpha, x + SIZE/2 - size/2, y + SIZE/2 - size/2, size, size);
+        q.fillOval(1, Color.ORANGE, alpha, x + SIZE/2 - size/3, y + SIZE/2 - size/3, size/1.5, size/1.5);
+        q.fillOval(2, Color.YELLOW, alpha, x + SIZE/2 - size/4, y + SIZE/2 - size/4, size/2, size/2);
     }
     
     public boolean isFinished() {
@@ -610,19 +696,10 @@ class Explosion {
 }
 
 // Meteor class (meteorite)
-class Meteor {
-    private double x, y;
-    private double dx, dy;  // Movement speed
-    private MeteorSize size;
-    private int health;
-    private double speed = 3;  // Base speed
-    
-    // Storage for spot details and sizes
-    private double[] detailX;
-    private double[] detailY;
-    private double[] detailSize;
-    private double[] detailAngles;  // Storage for each spot's angle
-    private double rotationSpeed;   // Rotation speed
+// Meteors live in a MeteorStore, this class only holds their behaviour
+final class Meteor {
+    static final double SPEED = 3;  // Speed after bouncing off an enemy
+    static final Rotation ROTATION = new Rotation(0.1);  // Spot rotation per tick
     
     public enum MeteorSize {
         SMALL(1, 20),    // Small meteor: radius 20, health value 1
@@ -641,125 +718,51 @@ class Meteor {
         public int getSize() { return size; }
     }
     
-    public Meteor(double x, double y, MeteorSize size) {
-        this.x = x;
-        this.y = y;
-        this.size = size;
-        this.health = size.getHealth();
-        this.speed = 3;  // Initialize base speed
-        
-        // Random speed
-        this.dx = (Math.random() - 0.5) * 4;  // Random speed between -2 and 2
-        this.dy = 2 + Math.random() * 3;      // Random speed between 2 and 5
-        
-        // Initialize spot properties
-        detailX = new double[3];
-        detailY = new double[3];
-        detailSize = new double[3];
-        detailAngles = new double[3];
-        rotationSpeed = 0.1; // Random rotation speed and direction
-        
-        // Generate three different sized spots
-        for (int i = 0; i < 3; i++) {
-            detailSize[i] = size.getSize() * (0.15 + Math.random() * 0.15); // 15%-30% of the meteor size
-            double radius = size.getSize() * 0.3; // Distance from center to spot
-            detailAngles[i] = Math.random() * Math.PI * 2; // Random initial angle
-            // Calculate initial position
-            detailX[i] = radius * Math.cos(detailAngles[i]);
-            detailY[i] = radius * Math.sin(detailAngles[i]);
-        }
-    }
-    
-    public void setVelocity(double dx, double dy) {
-        this.dx = dx;
-        this.dy = dy;
-    }
-    
-    public double getSpeed() {
-        return speed;
-    }
+    static final MeteorSize[] SIZES = MeteorSize.values();
     
-    public void update() {
-        x += dx;
-        y += dy;
-        
-        // Update spot angles and positions
-        for (int i = 0; i < 3; i++) {
-            detailAngles[i] += rotationSpeed;
-            double radius = size.getSize() * 0.3;
-            detailX[i] = radius * Math.cos(detailAngles[i]);
-            detailY[i] = radius * Math.sin(detailAngles[i]);
+    // The rock of each size, and the spots by whole-pixel diameter around their center
+    // Spots are placed at random angles and keep turning, so they stay separate images.
+    static final Sprite[] ROCKS = new Sprite[SIZES.length];
+    static final Sprite[] SPOT_SPRITES = new Sprite[(int) Math.ceil(SIZES[SIZES.length - 1].getSize() * 0.3) + 1];
+    static {
+        for (MeteorSize meteorSize : SIZES) {
+            int size = meteorSize.getSize();
+            ROCKS[meteorSize.ordinal()] = new Sprite(0, 0, size, size, (gc, x, y) -> {
+                gc.setFill(Color.GRAY);
+                gc.fillOval(x, y, size, size);
+            });
         }
-        
-        // Prevent meteor from going out of screen boundaries
-        if (x < 0 || x > 800 - size.getSize()) {
-            dx = -dx;
+        for (int d = 1; d < SPOT_SPRITES.length; d++) {
+            int spotSize = d;
+            SPOT_SPRITES[d] = new Sprite(-spotSize/2.0, -spotSize/2.0, spotSize, spotSize, (gc, x, y) -> {
+                gc.setFill(Color.DARKGRAY);
+                gc.fillOval(x - spotSize/2.0, y - spotSize/2.0, spotSize, spotSize);
+            });
         }
     }
     
-    public void render(GraphicsContext gc) {
-        gc.setFill(Color.GRAY);
-        gc.fillOval(x, y, size.getSize(), size.getSize());
+    private Meteor() {}
+    
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        int size = SIZES[s.variant[i]].getSize();
+        q.sprite(0, ROCKS[s.variant[i]], x, y);
         
         // Render rotating spots
-        gc.setFill(Color.DARKGRAY);
-        double centerX = x + size.getSize() / 2;
-        double centerY = y + size.getSize() / 2;
-        for (int i = 0; i < 3; i++) {
-            gc.fillOval(centerX + detailX[i] - detailSize[i]/2, 
-                       centerY + detailY[i] - detailSize[i]/2, 
-                       detailSize[i], detailSize[i]);
+        double centerX = x + size / 2;
+        double centerY = y + size / 2;
+        double[] details = s.details;
+        for (int k = 0, d = s.detail[i]; k < MeteorStore.SPOTS; k++, d += 3) {
+            int spotSize = Math.max(1, Math.min(SPOT_SPRITES.length - 1, (int) Math.round(details[d + 2])));
+            q.sprite(1, SPOT_SPRITES[spotSize], centerX + details[d], centerY + details[d + 1]);
         }
     }
-    
-    public boolean intersects(Bullet bullet) {
-        double radius = size.getSize()/2;
-        double dx = bullet.getX() - x;
-        double dy = bullet.getY() - y;
-        return Math.sqrt(dx * dx + dy * dy) < radius;
-    }
-    
-    public boolean intersects(Player player) {
-        double radius = size.getSize()/2;
-        double dx = (player.getX() + 20) - x;  // Player center point
-        double dy = (player.getY() + 20) - y;
-        return Math.sqrt(dx * dx + dy * dy) < radius + 20;  // 20 is the player collision radius
-    }
-    
-    public void damage() {
-        health--;
-    }
-    
-    public boolean isDestroyed() {
-        return health <= 0;
-    }
-    
-    public boolean isOffscreen(int height) {
-        return y > height;
-    }
-    
-    public double getX() { return x; }
-    public double getY() { return y; }
-    public MeteorSize getSize() { return size; }
-    
-    public boolean intersects(Enemy enemy) {
-        double radius = size.getSize()/2;
-        double dx = (enemy.getX() + 20) - x;  // Enemy center point
-        double dy = (enemy.getY() + 20) - y;
-        return Math.sqrt(dx * dx + dy * dy) < radius + 20;  // 20 is the enemy collision radius
-    }
-    
-    public boolean intersects(WingmanShip wingman) {
-        double radius = size.getSize()/2;
-        double dx = (wingman.getX() + 20) - x;  // Ship center point
-        double dy = (wingman.getY() + 20) - y;
-        return Math.sqrt(dx * dx + dy * dy) < radius + 20;  // 20 is the ship collision radius
-    }
 }
 
 // Friendly ship class
 class WingmanShip {
     private double x, y;
+    private double previousX, previousY;  // Before this tick's move, for render interpolation
     private double offsetX, offsetY;
     private int health = 3;
     private boolean invincible = false;
@@ -767,100 +770,152 @@ class WingmanShip {
     private PowerUp.PowerUpType currentPowerUp = null;
     private long powerUpStartTime;
     private static final long POWER_UP_DURATION = 5_000_000_000L; // Changed to 5 seconds, using nanoseconds
+    private static final long DAMAGE_INVINCIBLE_DURATION = 2_000_000_000L; // After being hit
     private static final int WIDTH = 800;
     private static final int HEIGHT = 600;
     private static final int SHIP_SIZE = 40;
+    private double flameHeight = 10;
+    private final Collider collider = new Collider();
 
-    public WingmanShip(double offsetX, double offsetY) {
+    // Starts in formation, so the first frames do not blend in from the corner
+    public WingmanShip(Player player, double offsetX, double offsetY) {
         this.offsetX = offsetX;
         this.offsetY = offsetY;
+        this.x = this.previousX = player.getX() + offsetX;
+        this.y = this.previousY = player.getY() + offsetY;
     }
 
-    public void update(Player player, List<WingmanShip> wingmen) {
+    public void update(Player player, List<WingmanShip> wingmen, GameClock clock) {
         // Update position directly
+        previousX = x;
+        previousY = y;
         this.x = player.getX() + offsetX;
         this.y = player.getY() + offsetY;
         
-        // Update invincible status
-        if (invincible && System.currentTimeMillis() - invincibleStartTime > 2000) {
+        // Update invincible status after damage, the power-up ends in checkPowerUpExpiration
+        if (invincible && currentPowerUp != PowerUp.PowerUpType.INVINCIBLE
+                && clock.now() - invincibleStartTime > DAMAGE_INVINCIBLE_DURATION) {
             invincible = false;
         }
-        
-        // Update skill status
-        if (currentPowerUp != null && System.currentTimeMillis() - powerUpStartTime > 10000) {
-            currentPowerUp = null;
-        }
     }
 
-    public void render(GraphicsContext gc) {
+    public void flicker(GameRandom random) {
+        flameHeight = 10 + random.nextDouble() * 5;
+    }
+
+    public void checksum(WorldChecksum sum) {
+        sum.add(x);
+        sum.add(y);
+        sum.add(health);
+        sum.add(invincible);
+    }
+
+    public void save(ByteBuffer out) {
+        out.putDouble(offsetX);
+        out.putDouble(offsetY);
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putInt(health);
+        out.put((byte) (invincible ? 1 : 0));
+        out.putLong(invincibleStartTime);
+        out.putInt(PowerUp.ordinalOf(currentPowerUp));
+        out.putLong(powerUpStartTime);
+        out.putDouble(flameHeight);
+    }
+
+    // Overwrites every saved field, so pooled wing-men can be restored into
+    public WingmanShip restore(ByteBuffer in) {
+        offsetX = in.getDouble();
+        offsetY = in.getDouble();
+        x = previousX = in.getDouble();
+        y = previousY = in.getDouble();
+        health = in.getInt();
+        invincible = in.get() != 0;
+        invincibleStartTime = in.getLong();
+        currentPowerUp = PowerUp.typeOf(in.getInt());
+        powerUpStartTime = in.getLong();
+        flameHeight = in.getDouble();
+        return this;
+    }
+
+    public void snapshot(RenderSnapshot out) {
+        out.addSprite(RenderSnapshot.WINGMAN, previousX, previousY, x, y, invincible ? 1 : 0, health);
+        out.addDetail(flameHeight);
+    }
+
+    // Everything but the flickering flame and the health bar
+    static final Sprite BODY = new Sprite(0, 0, 40, 55, WingmanShip::renderBody);
+
+    public static void draw(RenderQueue q, RenderSnapshot s, int i) {
+        double x = s.x[i], y = s.y[i];
+        boolean invincible = s.variant[i] != 0;
+        double health = s.value[i];
         // Only render when not invincible or during flash effect
-        if (!invincible || System.currentTimeMillis() % 200 < 100) {
-            // Main body (white)
-            gc.setFill(Color.WHITE);
-            // Draw triangular body
-            gc.fillPolygon(
-                new double[]{x + 20, x + 40, x},  // x coordinates
-                new double[]{y, y + 40, y + 40},  // y coordinates
-                3
-            );
-            
-            // Blue circular window
-            gc.setFill(Color.LIGHTBLUE);
-            gc.fillOval(x + 15, y + 10, 10, 10);
+        if (!invincible || s.time / 1_000_000 % 200 < 100) {
+            q.sprite(0, BODY, x, y);
             
-            // Engine effect
-            gc.setFill(Color.YELLOW);
-            gc.fillOval(x + 15, y + 40, 10, 15);
-            gc.setGlobalAlpha(0.6);
-            double flameHeight = 10 + Math.random() * 5;
-            gc.setFill(Color.ORANGE);
-            gc.fillOval(x + 15, y + 45, 10, flameHeight);
-            gc.setGlobalAlpha(1.0);
+            // Engine flame
+            double flameHeight = s.details[s.detail[i]];
+            q.fillOval(1, Color.ORANGE, 0.6, x + 15, y + 45, 10, flameHeight);
         }
         
         // Health bar
         double healthBarWidth = 40;
         double healthBarHeight = 5;
         // Health bar background
-        gc.setFill(Color.RED);
-        gc.fillRect(x, y + 45, healthBarWidth, healthBarHeight);
+        q.fillRect(2, Color.RED, x, y + 45, healthBarWidth, healthBarHeight);
         // Current health
-        gc.setFill(Color.GREEN);
-        gc.fillRect(x, y + 45, healthBarWidth * (health / 3.0), healthBarHeight);
+        q.fillRect(3, Color.GREEN, x, y + 45, healthBarWidth * (health / 3.0), healthBarHeight);
         
         // Invincible effect
         if (invincible) {
-            gc.setGlobalAlpha(0.3);
-            gc.setFill(Color.CYAN);
-            gc.fillOval(x - 10, y - 10, 60, 60);
-            gc.setGlobalAlpha(1.0);
+            q.fillOval(4, Color.CYAN, 0.3, x - 10, y - 10, 60, 60);
         }
     }
 
-    public Bullet shoot() {
+    private static void renderBody(GraphicsContext gc, double x, double y) {
+        // Main body (white)
+        gc.setFill(Color.WHITE);
+        // Draw triangular body
+        gc.fillPolygon(
+            new double[]{x + 20, x + 40, x},  // x coordinates
+            new double[]{y, y + 40, y + 40},  // y coordinates
+            3
+        );
+        
+        // Blue circular window
+        gc.setFill(Color.LIGHTBLUE);
+        gc.fillOval(x + 15, y + 10, 10, 10);
+        
+        // Engine effect
+        gc.setFill(Color.YELLOW);
+        gc.fillOval(x + 15, y + 40, 10, 15);
+    }
+
+    public void shoot(ProjectileStore bullets, GameRandom random) {
         if (currentPowerUp == PowerUp.PowerUpType.TRIPLE_SHOT) {
-            return new Bullet(x + 20, y, 0);
+            Bullet.spawn(bullets, x + 20, y, 0);
         } else if (currentPowerUp == PowerUp.PowerUpType.SPREAD_SHOT) {
-            return new Bullet(x + 20, y, (Math.random() - 0.5) * 2);
+            Bullet.spawn(bullets, x + 20, y, (random.nextDouble() - 0.5) * 2);
         } else {
-            return new Bullet(x + 20, y);
+            Bullet.spawn(bullets, x + 20, y);
         }
     }
 
-    public void damage() {
+    public void damage(GameClock clock) {
         if (!invincible) {
             health--;
             invincible = true;
-            invincibleStartTime = System.currentTimeMillis();
+            invincibleStartTime = clock.now();
         }
     }
 
-    public void activatePowerUp(PowerUp.PowerUpType type) {
+    public void activatePowerUp(PowerUp.PowerUpType type, GameClock clock) {
         currentPowerUp = type;
-        powerUpStartTime = System.nanoTime();  // Use nanoseconds for timing
+        powerUpStartTime = clock.now();
         if (type == PowerUp.PowerUpType.INVINCIBLE) {
             invincible = true;
-            invincibleStartTime = System.nanoTime();
+            invincibleStartTime = clock.now();
         }
     }
 
@@ -877,9 +932,9 @@ class WingmanShip {
         return invincible;
     }
 
-    public void checkPowerUpExpiration() {
+    public void checkPowerUpExpiration(GameClock clock) {
         if (currentPowerUp != null) {
-            if (System.nanoTime() - powerUpStartTime > POWER_UP_DURATION) {  // Use nanoseconds for comparison
+            if (clock.now() - powerUpStartTime > POWER_UP_DURATION) {
                 if (currentPowerUp == PowerUp.PowerUpType.INVINCIBLE) {
                     invincible = false;
                 }
@@ -899,6 +954,10 @@ class WingmanShip {
     public double getX() { return x; }
     public double getY() { return y; }
 
+    public Collider collider() {
+        return collider.circle(x + SHIP_SIZE/2, y + SHIP_SIZE/2, SHIP_SIZE/2);
+    }
+
     // Check if given player position would cause friendly ship to go out of bounds
     public boolean wouldBeOutOfBounds(double playerNewX, double playerNewY) {
         double newX = playerNewX + offsetX;
@@ -915,4 +974,44 @@ class WingmanShip {
     public double getOffsetY() {
         return offsetY;
     }
-} 
\ No newline at end of file
+} 
+
+// Background star class
+class Star {
+    double x, y;
+    double speed;
+    double brightness;
+    
+    Star(GameRandom random) {
+        reset(random);
+        y = random.nextDouble() * GameWorld.HEIGHT;
+    }
+    
+    void reset(GameRandom random) {
+        x = random.nextDouble() * GameWorld.WIDTH;
+        y = 0;
+        speed = 1 + random.nextDouble() * 3;
+        brightness = 0.2 + random.nextDouble() * 0.8;
+    }
+    
+    void save(ByteBuffer out) {
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putDouble(speed);
+        out.putDouble(brightness);
+    }
+    
+    void restore(ByteBuffer in) {
+        x = in.getDouble();
+        y = in.getDouble();
+        speed = in.getDouble();
+        brightness = in.getDouble();
+    }
+    
+    void update(GameRandom random) {
+        y += speed;
+        if (y > GameWorld.HEIGHT) {
+            reset(random);
+        }
+    }
+}
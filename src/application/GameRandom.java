@@ -0,0 +1,47 @@
+package application;
+
+// Seeded random numbers for one game world
+// SplitMix64, the same generator as java.util.SplittableRandom, but with plain state so a
+// world can be replayed from its seed. Unlike Math.random() it is not shared between
+// threads, so there is no synchronization on the hot path; every consumer gets its own
+// substream from split().
+final class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    // Independent generator seeded from this one
+    GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+
+    long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Current position in the sequence, for checksums and saves
+    long state() {
+        return state;
+    }
+
+    void restore(long savedState) {
+        state = savedState;
+    }
+
+    // Uniform in [0, 1), drop-in replacement for Math.random()
+    double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // Uniform in [0, bound)
+    int nextInt(int bound) {
+        return (int) (nextDouble() * bound);
+    }
+}
@@ -0,0 +1,916 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Shared game engine used by every level
+// Holds all game objects and runs the update/collision hot path once for all levels;
+// the differences between levels come from the plugged-in LevelRules. Drawing goes
+// through render snapshots (see WorldRenderer), so the world can run on its own thread.
+class GameWorld {
+    static final int WIDTH = 800;
+    static final int HEIGHT = 600;
+    static final long GAME_DURATION = 60_000_000_000L; // 60 seconds until victory or boss
+    static final long TUTORIAL_DURATION = 5_000_000_000L; // Tutorial lasts 5 seconds
+    private static final double PLAYER_SPEED = 5;
+    private static final long BULLET_COOLDOWN = 100_000_000L; // Bullet cool-down time (0.1 seconds in nanoseconds)
+    private static final long WINGMAN_BULLET_COOLDOWN = 100_000_000L; // Wing-man bullet cool-down time (0.1 seconds in nanoseconds)
+    // Start with -Dspaceshooter.parallelUpdate=true to move big waves on all cores
+    private static final boolean PARALLEL_UPDATE = Boolean.getBoolean("spaceshooter.parallelUpdate");
+
+    private final LevelRules rules;
+
+    // Game objects
+    private Player player;
+    private final ProjectileStore bullets = new ProjectileStore(RenderSnapshot.BULLET, 256);
+    private final EnemyStore enemies;  // Set up in the constructor, after the timers
+    private List<PowerUp> powerUps = new ArrayList<>();
+    private List<Explosion> explosions = new ArrayList<>();
+    private final ProjectileStore enemyBullets = new ProjectileStore(RenderSnapshot.ENEMY_BULLET, 128);
+    private final MeteorStore meteors = new MeteorStore(32);
+    private List<WingmanShip> wingmen = new ArrayList<>();
+    private final ProjectileStore bossBullets = new ProjectileStore(RenderSnapshot.BOSS_BULLET, 128);
+    private List<Star> backgroundStars = new ArrayList<>();
+    private Boss currentBoss;
+
+    // Collisions: every object is a body on a layer, the matrix says which layers touch
+    private static final int PLAYER_BODY = 0;  // Body sources, the body index is the list index or store row
+    private static final int WINGMAN_BODY = 1;
+    private static final int BULLET_BODY = 2;
+    private static final int ENEMY_BODY = 3;
+    private static final int ENEMY_BULLET_BODY = 4;
+    private static final int BOSS_BULLET_BODY = 5;
+    private static final int METEOR_BODY = 6;
+    private static final int POWER_UP_BODY = 7;
+    private static final int BOSS_BODY = 8;
+    private final CollisionMatrix collisionMatrix = new CollisionMatrix();
+    private final CollisionResolver resolver = new CollisionResolver(collisionMatrix);
+    private int bossBody;
+    // Hits recorded this tick, the health fields only change when the commands are applied
+    private int bossHits;
+    private int[] meteorHits = new int[32];
+    private int enemyBodies;  // First body of each list, the rest follow in list order
+    private int meteorBodies;
+    private int powerUpBodies;
+    // Narrow-phase tests and hits of the last tick, for the F3 overlay
+    private volatile int lastPairsTested;
+    private volatile int lastPairsHit;
+
+    // Pool for the explosions; projectiles, enemies and meteors need none because they
+    // live in packed stores
+    private final ObjectPool<Explosion> explosionPool = new ObjectPool<>(Explosion::new, 64);
+    // Wing-men and power-ups that left the world, for restore() to fill in, and the
+    // defeated boss, so stepping back through a rewind allocates none of them
+    private final ObjectPool<WingmanShip> wingmanPool = new ObjectPool<>(() -> new WingmanShip(player, 0, 0), 4);
+    private final ObjectPool<PowerUp> powerUpPool = new ObjectPool<>(PowerUp::new, 16);
+    private Boss defeatedBoss;
+    private final ParallelUpdate mover = new ParallelUpdate(PARALLEL_UPDATE);
+    private final CommandBuffer commands = new CommandBuffer();
+    private final TimingWheel timers = new TimingWheel();  // Spawns, enemy shots and boss attacks
+    private final TimingWheel.Task[] levelTasks;  // What the rules scheduled, found by identity when saving
+    private final TimingWheel.Rescheduler timerOwners = this::restoreTimer;  // Kept, restore() runs on every rewind step
+    // Timer keys in saves: the owner in the top byte, its index or row below
+    private static final int TIMER_INDEX = (1 << 24) - 1;
+    private static final int LEVEL_TIMER = 1 << 24;
+    private static final int ENEMY_SHOT = 2 << 24;
+    private static final int BOSS_TIMER = 3 << 24;
+    private final WorldChecksum checksum;  // null unless enabled
+
+    // Game states
+    private int score = 0;
+    private boolean gameOver = false;
+    private boolean victory = false;
+    private boolean bossSpawned = false;
+    private boolean tutorialMode = true;
+    private long tutorialStartTime;
+    private long startTime;
+    private long currentTime;  // Simulated time of the last update, read from the clock
+    private final GameClock clock;
+
+    // Random substreams, split from the world seed so each one stays reproducible
+    // no matter how often the others are used
+    private long seed;  // Replaced when a save is restored
+    private final GameRandom spawnRandom;   // What spawns where
+    private final GameRandom visualRandom;  // Stars and engine flames
+    private final GameRandom aiRandom;      // Shooting decisions
+    private long lastBulletTime;  // The first shots are ready wherever the clock starts
+    private long unshownInputTime;  // Input applied since the last snapshot, for the latency metric
+    private long lastWingmanBulletTime;
+
+    GameWorld(LevelRules rules, long now, long seed) {
+        this(rules, now, seed, WorldChecksum.fromProperties());
+    }
+
+    // Throwaway worlds, such as the warm-up ones, pass null so they never touch the checksum file
+    GameWorld(LevelRules rules, long now, long seed, WorldChecksum checksum) {
+        this.rules = rules;
+        this.checksum = checksum;
+        this.clock = new GameClock(now);
+        this.seed = seed;
+        GameRandom root = new GameRandom(seed);
+        this.spawnRandom = root.split();
+        this.visualRandom = root.split();
+        this.aiRandom = root.split();
+        this.tutorialStartTime = now;
+        this.currentTime = now;
+        this.lastBulletTime = now - BULLET_COOLDOWN;
+        this.lastWingmanBulletTime = now - WINGMAN_BULLET_COOLDOWN;
+
+        enemies = new EnemyStore(32, timers, enemyBullets);
+        player = new Player(WIDTH/2, HEIGHT-50);
+        if (rules.hasWingmen()) {
+            wingmen.add(new WingmanShip(player, -70, 0));     // Left side, back
+            wingmen.add(new WingmanShip(player, -100, -20));  // Left side, front
+            wingmen.add(new WingmanShip(player, 70, 0));      // Right side, back
+            wingmen.add(new WingmanShip(player, 100, -20));   // Right side, front
+        }
+        for (int i = 0; i < 100; i++) {
+            backgroundStars.add(new Star(visualRandom));
+        }
+
+        // Contacts are handled in this order, a level may enable more after these
+        collisionMatrix.enable(CollisionLayer.PLAYER, CollisionLayer.ENEMY_SHOT);
+        collisionMatrix.enable(CollisionLayer.WINGMAN, CollisionLayer.ENEMY_SHOT);
+        collisionMatrix.enable(CollisionLayer.PLAYER, CollisionLayer.BOSS);
+        collisionMatrix.enable(CollisionLayer.WINGMAN, CollisionLayer.BOSS);
+        collisionMatrix.enable(CollisionLayer.PLAYER_SHOT, CollisionLayer.BOSS);
+        collisionMatrix.enable(CollisionLayer.PLAYER, CollisionLayer.ENEMY);
+        collisionMatrix.enable(CollisionLayer.WINGMAN, CollisionLayer.ENEMY);
+        collisionMatrix.enable(CollisionLayer.PLAYER_SHOT, CollisionLayer.ENEMY);
+        collisionMatrix.enable(CollisionLayer.PLAYER, CollisionLayer.METEOR);
+        collisionMatrix.enable(CollisionLayer.WINGMAN, CollisionLayer.METEOR);
+        collisionMatrix.enable(CollisionLayer.PLAYER_SHOT, CollisionLayer.METEOR);
+        collisionMatrix.enable(CollisionLayer.PLAYER_SHOT, CollisionLayer.PICKUP);
+        rules.configureCollisions(collisionMatrix);
+        rules.schedule(this, timers);
+        levelTasks = new TimingWheel.Task[timers.pending()];
+        for (int k = 0; k < levelTasks.length; k++) {
+            levelTasks[k] = timers.task(k);  // The first events of a new wheel have handles 0, 1, ...
+        }
+
+        // Invincible during the tutorial
+        player.activatePowerUp(PowerUp.PowerUpType.INVINCIBLE, clock);
+        for (WingmanShip wingman : wingmen) {
+            wingman.activatePowerUp(PowerUp.PowerUpType.INVINCIBLE, clock);
+        }
+    }
+
+    // Advance the game by one simulation tick, the clock must already be on the new tick
+    void update() {
+        long now = clock.now();
+        currentTime = now;
+        if (gameOver || victory) {
+            updateStars();  // Continue updating background stars
+            if (checksum != null) checksum.close();
+            return;
+        }
+
+        // Check tutorial state
+        if (tutorialMode) {
+            if (now - tutorialStartTime > TUTORIAL_DURATION) {
+                tutorialMode = false;
+                startTime = now;  // Start game timer
+                player.deactivateInvincible();
+                for (WingmanShip wingman : wingmen) {
+                    wingman.deactivateInvincible();
+                }
+            }
+        } else if (now - startTime > GAME_DURATION) {
+            if (rules.getBossType() == null) {
+                victory = true;  // Survived until the end
+                return;
+            }
+            if (!bossSpawned) {
+                currentBoss = new Boss(rules.getBossType());
+                currentBoss.arm(timers, bossBullets, clock);
+                bossSpawned = true;
+            }
+        }
+
+        timers.advance();
+        updateGame();
+        if (checksum != null) {
+            writeChecksum();
+        }
+    }
+
+    private void updateGame() {
+        updateStars();
+        player.update(wingmen);
+        player.flicker(visualRandom);
+        player.checkPowerUpExpiration(clock);
+        updateWingmen();
+
+        if (currentBoss != null) {
+            currentBoss.update();
+        }
+        mover.update(enemies, meteors);
+        updatePowerUps();
+        updateProjectiles();
+
+        resolveCollisions();
+        updateExplosions();
+
+        checkPlayerHealth();
+    }
+
+    // Spawn helpers used by the level rules
+
+    void spawnMeteor() {
+        double x = spawnRandom.nextDouble() * (WIDTH - 100) + 50;
+        Meteor.MeteorSize randomSize = Meteor.SIZES[spawnRandom.nextInt(Meteor.SIZES.length)];
+        meteors.spawn(x, -50, randomSize, spawnRandom);
+    }
+
+    void spawnEnemy() {
+        double x = spawnRandom.nextDouble() * (WIDTH-40);
+        Enemy.EnemyType[] types = Enemy.EnemyType.values();
+        enemies.spawn(x, 0, types[spawnRandom.nextInt(types.length)]);
+    }
+
+    void spawnPowerUp() {
+        powerUps.add(new PowerUp(spawnRandom.nextDouble() * (WIDTH-40), 0, spawnRandom));
+    }
+
+    boolean isBossActive() {
+        return currentBoss != null;
+    }
+
+    // Player controls
+
+    // Game keys at the start of a tick; inputTime is the oldest new key event, 0 if none
+    // Fires every tick while SPACE is held, the cool-down sets the rate.
+    void applyInput(HeldKeys keys, long inputTime) {
+        if (checksum != null) {
+            checksum.input(keys);  // Verifying replaces the keys with the recorded ones
+        }
+        if (inputTime != 0 && unshownInputTime == 0) {
+            unshownInputTime = inputTime;
+        }
+        if (isFinished()) {
+            // Nothing moves or fires on the end screen; HeldKeys has still taken every
+            // press and release, so keys held across it stay consistent
+            player.setDx(0);
+            player.setDy(0);
+            return;
+        }
+        int right = keys.isHeld(InputRing.RIGHT) ? 1 : 0;
+        int left = keys.isHeld(InputRing.LEFT) ? 1 : 0;
+        int down = keys.isHeld(InputRing.DOWN) ? 1 : 0;
+        int up = keys.isHeld(InputRing.UP) ? 1 : 0;
+        player.setDx((right - left) * PLAYER_SPEED);
+        player.setDy((down - up) * PLAYER_SPEED);
+        if (keys.isActive(InputRing.FIRE)) {
+            playerFire();
+        }
+    }
+
+    void playerFire() {
+        long now = currentTime;
+        if (now - lastBulletTime >= BULLET_COOLDOWN) {
+            if (player.getCurrentPowerUp() == PowerUp.PowerUpType.TRIPLE_SHOT) {
+                Bullet.spawn(bullets, player.getX() + 20, player.getY());
+                Bullet.spawn(bullets, player.getX() + 10, player.getY());
+                Bullet.spawn(bullets, player.getX() + 30, player.getY());
+            } else if (player.getCurrentPowerUp() == PowerUp.PowerUpType.SPREAD_SHOT) {
+                Bullet.spawn(bullets, player.getX() + 20, player.getY(), -1);
+                Bullet.spawn(bullets, player.getX() + 20, player.getY(), 0);
+                Bullet.spawn(bullets, player.getX() + 20, player.getY(), 1);
+            } else {
+                Bullet.spawn(bullets, player.getX() + 20, player.getY());
+            }
+            lastBulletTime = now;
+        }
+
+        // Wing-men fire bullets with cool-down
+        if (!wingmen.isEmpty() && now - lastWingmanBulletTime >= WINGMAN_BULLET_COOLDOWN) {
+            for (WingmanShip wingman : wingmen) {
+                wingman.shoot(bullets, aiRandom);
+            }
+            lastWingmanBulletTime = now;
+        }
+    }
+
+    // Updates
+
+    private void updateStars() {
+        for (Star star : backgroundStars) {
+            star.update(visualRandom);
+        }
+    }
+
+    // Wing-men that ran out of health were already removed by their contact
+    private void updateWingmen() {
+        for (WingmanShip wingman : wingmen) {
+            wingman.update(player, wingmen, clock);
+            wingman.checkPowerUpExpiration(clock);
+            wingman.flicker(visualRandom);
+        }
+    }
+
+    private void updatePowerUps() {
+        for (PowerUp powerUp : powerUps) {
+            powerUp.update();
+        }
+    }
+
+    // Move every projectile and drop the ones that left the screen
+    private void updateProjectiles() {
+        bullets.move();
+        for (int i = 0; i < bullets.count; i++) {
+            if (Bullet.isOffscreen(bullets.y[i])) {
+                bullets.remove(i--);
+            }
+        }
+        enemyBullets.move();
+        for (int i = 0; i < enemyBullets.count; i++) {
+            if (EnemyBullet.isOffscreen(enemyBullets.y[i], HEIGHT)) {
+                enemyBullets.remove(i--);
+            }
+        }
+        bossBullets.move();
+        for (int i = 0; i < bossBullets.count; i++) {
+            if (BossBullet.isOffscreen(bossBullets.x[i], bossBullets.y[i])) {
+                bossBullets.remove(i--);
+            }
+        }
+    }
+
+    // Collisions
+
+    private void resolveCollisions() {
+        addBodies();
+        bossHits = 0;
+        if (meteorHits.length < meteors.count) {
+            meteorHits = new int[meteors.count * 2];
+        }
+        Arrays.fill(meteorHits, 0, meteors.count, 0);
+        resolver.resolve();
+        for (int k = 0; k < resolver.contactCount(); k++) {
+            int first = resolver.first(k), second = resolver.second(k);
+            if (!resolver.isDead(first) && !resolver.isDead(second)) {
+                handleContact(first, second);
+            }
+        }
+        applyCommands();  // Before the compaction, meteor damage refers to rows of this tick
+        removeDeadBodies();
+        lastPairsTested = resolver.getPairsTested();
+        lastPairsHit = resolver.getPairsHit();
+    }
+
+    // Every collidable object, each list walked once
+    private void addBodies() {
+        resolver.clear();
+        resolver.add(CollisionLayer.PLAYER, PLAYER_BODY, 0, player.collider());
+        for (int i = 0; i < wingmen.size(); i++) {
+            resolver.add(CollisionLayer.WINGMAN, WINGMAN_BODY, i, wingmen.get(i).collider());
+        }
+        if (currentBoss != null) {
+            bossBody = resolver.add(CollisionLayer.BOSS, BOSS_BODY, 0, currentBoss.collider());
+        }
+        enemyBodies = -1;
+        for (int i = 0; i < enemies.count; i++) {
+            int body = resolver.add(CollisionLayer.ENEMY, ENEMY_BODY, i, enemies.collider(i));
+            if (i == 0) enemyBodies = body;
+        }
+        meteorBodies = -1;
+        for (int i = 0; i < meteors.count; i++) {
+            int body = resolver.add(CollisionLayer.METEOR, METEOR_BODY, i, meteors.collider(i));
+            if (i == 0) meteorBodies = body;
+        }
+        powerUpBodies = -1;
+        for (int i = 0; i < powerUps.size(); i++) {
+            int body = resolver.add(CollisionLayer.PICKUP, POWER_UP_BODY, i, powerUps.get(i).collider());
+            if (i == 0) powerUpBodies = body;
+        }
+        addProjectileBodies(bullets, Bullet.RADIUS, CollisionLayer.PLAYER_SHOT, BULLET_BODY);
+        addProjectileBodies(enemyBullets, EnemyBullet.RADIUS, CollisionLayer.ENEMY_SHOT, ENEMY_BULLET_BODY);
+        addProjectileBodies(bossBullets, BossBullet.RADIUS, CollisionLayer.ENEMY_SHOT, BOSS_BULLET_BODY);
+    }
+
+    // Projectiles are the segment they travelled this tick, so fast ones cannot tunnel
+    private void addProjectileBodies(ProjectileStore store, double radius, CollisionLayer layer, int source) {
+        for (int i = 0; i < store.count; i++) {
+            resolver.addSegment(layer, source, i, store.previousX(i), store.previousY(i), store.x[i], store.y[i], radius);
+        }
+    }
+
+    private void handleContact(int first, int second) {
+        int j = resolver.index(second);
+        switch (resolver.source(first)) {
+            case PLAYER_BODY:
+                playerContact(second, j);
+                break;
+            case WINGMAN_BODY:
+                wingmanContact(first, wingmen.get(resolver.index(first)), second, j);
+                break;
+            case BULLET_BODY:
+                bulletContact(first, resolver.index(first), second, j);
+                break;
+            case METEOR_BODY:
+                bounceOffEnemy(resolver.index(first), j);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void playerContact(int other, int j) {
+        switch (resolver.source(other)) {
+            case ENEMY_BULLET_BODY:
+            case BOSS_BULLET_BODY:
+                // Invincible state only removes bullets
+                commands.explosion(player.getX(), player.getY());
+                if (!player.isInvincible()) {
+                    commands.damagePlayer();
+                }
+                killProjectile(other, j);
+                break;
+            case BOSS_BODY:
+                // Boss always takes damage
+                commands.explosion(currentBoss.getX(), currentBoss.getY());
+                if (!player.isInvincible()) {  // Player only takes damage if not invincible
+                    commands.explosion(player.getX(), player.getY());
+                    commands.damagePlayer();
+                }
+                hitBoss();
+                break;
+            case ENEMY_BODY:
+            case METEOR_BODY:
+                if (resolver.source(other) == ENEMY_BODY) {
+                    commands.explosion(enemies.x[j], enemies.y[j]);
+                } else {
+                    commands.explosion(meteors.x[j], meteors.y[j]);
+                }
+                if (!player.isInvincible()) {
+                    commands.explosion(player.getX(), player.getY());
+                    commands.damagePlayer();
+                }
+                resolver.kill(other);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void wingmanContact(int body, WingmanShip wingman, int other, int j) {
+        switch (resolver.source(other)) {
+            case ENEMY_BULLET_BODY:
+            case BOSS_BULLET_BODY:
+                commands.explosion(wingman.getX(), wingman.getY());
+                if (!wingman.isInvincible()) {
+                    damageWingman(body, wingman);
+                }
+                killProjectile(other, j);
+                break;
+            case BOSS_BODY:
+                commands.explosion(currentBoss.getX(), currentBoss.getY());
+                if (!wingman.isInvincible()) {
+                    commands.explosion(wingman.getX(), wingman.getY());
+                    damageWingman(body, wingman);
+                }
+                hitBoss();
+                break;
+            case ENEMY_BODY:
+                commands.explosion(enemies.x[j], enemies.y[j]);
+                if (!wingman.isInvincible()) {
+                    commands.explosion(wingman.getX(), wingman.getY());
+                    damageWingman(body, wingman);
+                } else if (!tutorialMode) {
+                    commands.score(100);
+                }
+                resolver.kill(other);
+                break;
+            case METEOR_BODY:
+                commands.explosion(meteors.x[j], meteors.y[j]);
+                if (!wingman.isInvincible()) {
+                    commands.explosion(wingman.getX(), wingman.getY());
+                    damageWingman(body, wingman);
+                }
+                resolver.kill(other);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Wing-men take damage at once and are the only contacts that change the world during
+    // the pass: a hit makes them invincible, so the other contacts of the tick must see it
+    private void damageWingman(int body, WingmanShip wingman) {
+        wingman.damage(clock);
+        if (wingman.getHealth() <= 0) {
+            resolver.kill(body);
+            commands.despawnWingman(resolver.index(body));
+        }
+    }
+
+    private void bulletContact(int bullet, int i, int other, int j) {
+        switch (resolver.source(other)) {
+            case BOSS_BODY:
+                commands.explosion(bullets.x[i], bullets.y[i]);
+                if (!tutorialMode) {
+                    commands.score(rules.getBossHitScore());
+                }
+                hitBoss();
+                break;
+            case ENEMY_BODY:
+                commands.explosion(enemies.x[j], enemies.y[j]);
+                resolver.kill(other);
+                if (!tutorialMode) {  // Only score in non-tutorial mode
+                    commands.score(100);  // Add 100 points for destroying an enemy
+                }
+                break;
+            case METEOR_BODY:
+                commands.damageMeteor(j);
+                if (meteors.health[j] - ++meteorHits[j] <= 0) {  // Several bullets of one tick may add up
+                    commands.explosion(meteors.x[j], meteors.y[j]);
+                    resolver.kill(other);
+                    if (!tutorialMode) {  // Only score in non-tutorial mode
+                        commands.score(50);  // Add 50 points for destroying a meteor
+                    }
+                }
+                break;
+            case POWER_UP_BODY:
+                commands.powerUp(powerUps.get(j).getType());
+                resolver.kill(other);
+                break;
+            default:
+                return;
+        }
+        killProjectile(bullet, i);  // Remove bullet that hit the target
+    }
+
+    private void bounceOffEnemy(int meteor, int enemy) {
+        // Calculate bounce direction after collision
+        double dx = meteors.x[meteor] - enemies.x[enemy];
+        double dy = meteors.y[meteor] - enemies.y[enemy];
+        double distance = Math.sqrt(dx * dx + dy * dy);
+
+        // Normalize direction vector
+        if (distance > 0) {
+            meteors.dx[meteor] = dx / distance * Meteor.SPEED;
+            meteors.dy[meteor] = dy / distance * Meteor.SPEED;
+        }
+    }
+
+    private void killProjectile(int body, int row) {
+        resolver.kill(body);
+        switch (resolver.source(body)) {
+            case BULLET_BODY: bullets.kill(row); break;
+            case ENEMY_BULLET_BODY: enemyBullets.kill(row); break;
+            case BOSS_BULLET_BODY: bossBullets.kill(row); break;
+            default: break;
+        }
+    }
+
+    // The hits recorded so far decide whether this one destroys the boss
+    private void hitBoss() {
+        commands.damageBoss();
+        if (currentBoss.getHealth() - ++bossHits <= 0) {
+            resolver.kill(bossBody);
+            commands.defeatBoss();
+        }
+    }
+
+    // Drop everything killed this tick and whatever drifted off the screen
+    private void removeDeadBodies() {
+        bullets.compact();
+        enemyBullets.compact();
+        bossBullets.compact();
+
+        // Walk the archetypes backwards, so the row swapped into a gap was already checked
+        // and the body ids of the rows still to check stay valid
+        for (int i = enemies.count - 1; i >= 0; i--) {
+            if (resolver.isDead(enemyBodies + i) || enemies.y[i] > HEIGHT) {
+                enemies.remove(i);
+            }
+        }
+        for (int i = meteors.count - 1; i >= 0; i--) {
+            if (resolver.isDead(meteorBodies + i) || meteors.y[i] > HEIGHT) {
+                meteors.remove(i);
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            if (!resolver.isDead(powerUpBodies + i) && powerUp.getY() <= HEIGHT) {
+                powerUps.set(kept++, powerUp);
+            } else {
+                powerUpPool.release(powerUp);
+            }
+        }
+        truncate(powerUps, kept);
+    }
+
+    // Apply what the contacts recorded, in recording order
+    private void applyCommands() {
+        boolean wingmanLost = false;
+        for (int k = 0; k < commands.size(); k++) {
+            switch (commands.op(k)) {
+                case CommandBuffer.EXPLOSION:
+                    explode(commands.x(k), commands.y(k));
+                    break;
+                case CommandBuffer.SCORE:
+                    score += commands.target(k);
+                    break;
+                case CommandBuffer.DAMAGE_PLAYER:
+                    player.damage();
+                    break;
+                case CommandBuffer.DESPAWN_WINGMAN:
+                    WingmanShip wingman = wingmen.set(commands.target(k), null);
+                    explode(wingman.getX(), wingman.getY());
+                    wingmanPool.release(wingman);
+                    wingmanLost = true;
+                    break;
+                case CommandBuffer.DEFEAT_BOSS:
+                    handleBossDefeat();
+                    break;
+                case CommandBuffer.DAMAGE_BOSS:
+                    currentBoss.damage();
+                    break;
+                case CommandBuffer.DAMAGE_METEOR:
+                    meteors.health[commands.target(k)]--;
+                    break;
+                case CommandBuffer.POWER_UP:
+                    PowerUp.PowerUpType type = PowerUp.typeOf(commands.target(k));
+                    player.activatePowerUp(type, clock);
+                    // Activate power-ups for all wing-men, lost ones are null until the end of this loop
+                    for (WingmanShip ship : wingmen) {
+                        if (ship != null) {
+                            ship.activatePowerUp(type, clock);
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        commands.clear();
+        if (wingmanLost) {
+            int kept = 0;
+            for (int i = 0; i < wingmen.size(); i++) {
+                if (wingmen.get(i) != null) {
+                    wingmen.set(kept++, wingmen.get(i));
+                }
+            }
+            truncate(wingmen, kept);
+        }
+    }
+
+    // Remove the tail in one step instead of shifting element by element
+    private static void truncate(List<?> list, int size) {
+        list.subList(size, list.size()).clear();
+    }
+
+    private void updateExplosions() {
+        int kept = 0;
+        for (int i = 0; i < explosions.size(); i++) {
+            Explosion explosion = explosions.get(i);
+            explosion.update();
+            if (explosion.isFinished()) {
+                explosionPool.release(explosion);
+            } else {
+                explosions.set(kept++, explosion);
+            }
+        }
+        truncate(explosions, kept);
+    }
+
+    private void explode(double x, double y) {
+        explosions.add(explosionPool.acquire().reset(x, y));
+    }
+
+    private void handleBossDefeat() {
+        explode(currentBoss.getX() + 100, currentBoss.getY() + 75);
+        explode(currentBoss.getX() + 50, currentBoss.getY() + 50);
+        explode(currentBoss.getX() + 150, currentBoss.getY() + 50);
+        score += 500;  // Add 500 points for defeating the boss
+        currentBoss.disarm(timers);
+        defeatedBoss = currentBoss;
+        currentBoss = null;
+        bossBullets.clear();
+        victory = true;
+    }
+
+    private void checkPlayerHealth() {
+        if (player.getHealth() <= 0) {
+            gameOver = true;
+            player.setDx(0);
+            player.setDy(0);
+            // Wing-men will automatically stop moving because their position is relative to the main ship
+        }
+    }
+
+    private void writeChecksum() {
+        checksum.begin(clock.ticks());
+        checksum.part(WorldChecksum.Part.PLAYER);
+        player.checksum(checksum);
+        checksum.part(WorldChecksum.Part.WINGMEN);
+        for (WingmanShip wingman : wingmen) wingman.checksum(checksum);
+        checksum.part(WorldChecksum.Part.ENEMIES);
+        enemies.checksum(checksum);
+        checksum.part(WorldChecksum.Part.METEORS);
+        meteors.checksum(checksum);
+        checksum.part(WorldChecksum.Part.POWER_UPS);
+        for (PowerUp powerUp : powerUps) powerUp.checksum(checksum);
+        checksum.part(WorldChecksum.Part.PROJECTILES);
+        bullets.checksum(checksum);
+        enemyBullets.checksum(checksum);
+        bossBullets.checksum(checksum);
+        checksum.part(WorldChecksum.Part.BOSS);
+        if (currentBoss != null) currentBoss.checksum(checksum);
+        checksum.part(WorldChecksum.Part.STATE);
+        checksum.add(score);
+        checksum.add(gameOver);
+        checksum.add(victory);
+        checksum.add(spawnRandom.state());
+        checksum.add(visualRandom.state());
+        checksum.add(aiRandom.state());
+        checksum.end();
+    }
+
+    // Saving
+
+    // Whole simulation state between two ticks, WorldSave puts the file header around it
+    void save(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(clock.now());
+        out.putLong(clock.ticks());
+        out.putLong(spawnRandom.state());
+        out.putLong(visualRandom.state());
+        out.putLong(aiRandom.state());
+        out.putInt(score);
+        out.put((byte) (gameOver ? 1 : 0));
+        out.put((byte) (victory ? 1 : 0));
+        out.put((byte) (bossSpawned ? 1 : 0));
+        out.put((byte) (tutorialMode ? 1 : 0));
+        out.putLong(tutorialStartTime);
+        out.putLong(startTime);
+        out.putLong(currentTime);
+        out.putLong(lastBulletTime);
+        out.putLong(lastWingmanBulletTime);
+
+        for (Star star : backgroundStars) star.save(out);  // Always the same number
+        player.save(out);
+        out.putInt(wingmen.size());
+        for (WingmanShip wingman : wingmen) wingman.save(out);
+        enemies.save(out);
+        meteors.save(out);
+        out.putInt(powerUps.size());
+        for (PowerUp powerUp : powerUps) powerUp.save(out);
+        out.putInt(explosions.size());
+        for (Explosion explosion : explosions) explosion.save(out);
+        bullets.save(out);
+        enemyBullets.save(out);
+        bossBullets.save(out);
+        out.put((byte) (currentBoss != null ? 1 : 0));
+        if (currentBoss != null) currentBoss.save(out);
+        timers.save(out, this::timerKey);
+    }
+
+    // Empty world of the same level, for decoding a save file before trusting it
+    GameWorld scratch() {
+        return new GameWorld(rules, 0, seed, null);
+    }
+
+    // Continue from a save of the same level, in the order save() wrote it
+    void restore(ByteBuffer in) {
+        seed = in.getLong();
+        long now = in.getLong();
+        clock.restore(now, in.getLong());
+        spawnRandom.restore(in.getLong());
+        visualRandom.restore(in.getLong());
+        aiRandom.restore(in.getLong());
+        score = in.getInt();
+        gameOver = in.get() != 0;
+        victory = in.get() != 0;
+        bossSpawned = in.get() != 0;
+        tutorialMode = in.get() != 0;
+        tutorialStartTime = in.getLong();
+        startTime = in.getLong();
+        currentTime = in.getLong();
+        lastBulletTime = in.getLong();
+        lastWingmanBulletTime = in.getLong();
+
+        // Indexed loops, an iterator per list would be garbage on every rewind step
+        for (int i = 0; i < backgroundStars.size(); i++) backgroundStars.get(i).restore(in);
+        player.restore(in);
+        for (int i = 0; i < wingmen.size(); i++) wingmanPool.release(wingmen.get(i));
+        wingmen.clear();
+        for (int n = in.getInt(); n > 0; n--) wingmen.add(wingmanPool.acquire().restore(in));
+        enemies.restore(in);
+        meteors.restore(in);
+        for (int i = 0; i < powerUps.size(); i++) powerUpPool.release(powerUps.get(i));
+        powerUps.clear();
+        for (int n = in.getInt(); n > 0; n--) powerUps.add(powerUpPool.acquire().restore(in));
+        for (int i = 0; i < explosions.size(); i++) explosionPool.release(explosions.get(i));
+        explosions.clear();
+        for (int n = in.getInt(); n > 0; n--) explosions.add(explosionPool.acquire().restore(in));
+        bullets.restore(in);
+        enemyBullets.restore(in);
+        bossBullets.restore(in);
+        if (currentBoss != null) {
+            defeatedBoss = currentBoss;
+            currentBoss = null;
+        }
+        if (in.get() != 0) {
+            currentBoss = defeatedBoss != null ? defeatedBoss : new Boss(rules.getBossType());
+            currentBoss.restore(in, bossBullets, clock);
+        }
+        timers.restore(in, timerOwners);
+    }
+
+    private int timerKey(int handle) {
+        TimingWheel.Task task = timers.task(handle);
+        for (int k = 0; k < levelTasks.length; k++) {
+            if (levelTasks[k] == task) return LEVEL_TIMER | k;
+        }
+        int which = currentBoss != null ? currentBoss.timerOf(handle) : -1;
+        if (which >= 0) return BOSS_TIMER | which;
+        int row = enemies.rowOfShot(handle);
+        if (row >= 0) return ENEMY_SHOT | row;
+        throw new IllegalStateException("Timer " + handle + " has no owner to save it");
+    }
+
+    private void restoreTimer(int key, long delay, long period) {
+        int index = key & TIMER_INDEX;
+        switch (key & ~TIMER_INDEX) {
+            case LEVEL_TIMER:
+                if (period > 0) {
+                    timers.every(delay, period, levelTasks[index]);
+                } else {
+                    timers.after(delay, levelTasks[index]);
+                }
+                break;
+            case ENEMY_SHOT:
+                enemies.restoreShot(index, delay, period);
+                break;
+            case BOSS_TIMER:
+                currentBoss.restoreTimer(timers, index, delay, period);
+                break;
+            default:
+                throw new IllegalStateException("Unknown timer key " + key);
+        }
+    }
+
+    // Copy the state needed for drawing into a render snapshot
+    void writeSnapshot(RenderSnapshot out) {
+        out.clear();
+        for (Star star : backgroundStars) {
+            out.addStar(star.x, star.y, star.brightness);
+        }
+
+        // Game objects in drawing layers
+        // 1. Background layer
+        for (PowerUp powerUp : powerUps) powerUp.snapshot(out);
+        meteors.snapshot(out);
+        // 2. Middle layer
+        enemies.snapshot(out);
+        if (currentBoss != null) currentBoss.snapshot(out);
+        // 3. Foreground layer
+        for (WingmanShip wingman : wingmen) wingman.snapshot(out);
+        player.snapshot(out);
+        bullets.snapshot(out);
+        enemyBullets.snapshot(out);
+        bossBullets.snapshot(out);
+        for (Explosion explosion : explosions) explosion.snapshot(out);
+
+        out.time = currentTime;
+        out.score = score;
+        out.playerHealth = player.getHealth();
+        out.tutorialMode = tutorialMode;
+        out.tutorialElapsed = currentTime - tutorialStartTime;
+        out.gameElapsed = currentTime - startTime;
+        out.bossSpawned = bossSpawned;
+        out.bossActive = currentBoss != null;
+        out.bossHealth = currentBoss != null ? currentBoss.getHealth() : 0;
+        out.finished = isFinished();
+        out.victory = victory;
+        out.inputTime = unshownInputTime;
+        unshownInputTime = 0;
+    }
+
+    // Flush and close the checksum file, when the level is left before it ended
+    // Recorded or verified, then the keys of every tick are the whole input
+    boolean hasChecksum() {
+        return checksum != null;
+    }
+
+    void closeChecksum() {
+        if (checksum != null) checksum.close();
+    }
+
+    // Game states
+
+    boolean isFinished() { return gameOver || victory; }
+    GameClock getClock() { return clock; }
+    int getPairsTested() { return lastPairsTested; }
+    int getPairsHit() { return lastPairsHit; }
+    ObjectPool<Explosion> getExplosionPool() { return explosionPool; }
+    int getEnemyCount() { return enemies.count; }
+    int getMeteorCount() { return meteors.count; }
+    long getSeed() { return seed; }
+}
@@ -0,0 +1,119 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Single-producer single-consumer ring of timestamped key events
+// The FX thread pushes every press and release of a game key together with its
+// System.nanoTime(); the thread running the world drains them at the start of the next
+// tick. Each index is written by one side only, so a lazySet publishes it without locks,
+// and the event columns are allocated once.
+final class InputRing {
+    // Game keys
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int UP = 2;
+    static final int DOWN = 3;
+    static final int FIRE = 4;
+    static final int REWIND = 5;
+    static final int KEYS = 6;
+
+    private final int[] key;
+    private final boolean[] down;
+    private final long[] time;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();  // Next event to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong();  // Next free entry, written by the producer
+    private volatile int dropped;
+
+    // capacity must be a power of two
+    InputRing(int capacity) {
+        key = new int[capacity];
+        down = new boolean[capacity];
+        time = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    // Producer side, false when the ring is full and the event was dropped
+    boolean offer(int gameKey, boolean pressed, long nanos) {
+        long t = tail.get();
+        if (t - head.get() == key.length) {
+            dropped++;
+            return false;
+        }
+        int i = (int) t & mask;
+        key[i] = gameKey;
+        down[i] = pressed;
+        time[i] = nanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Consumer side: apply every queued event to the key state
+    // Returns the time of the oldest event applied, 0 when there was none.
+    long drainInto(HeldKeys keys) {
+        keys.startTick();
+        long h = head.get();
+        long t = tail.get();
+        if (h == t) {
+            return 0;
+        }
+        long oldest = time[(int) h & mask];
+        for (; h < t; h++) {
+            int i = (int) h & mask;
+            keys.apply(key[i], down[i]);
+        }
+        head.lazySet(t);
+        return oldest;
+    }
+
+    int getDropped() {
+        return dropped;
+    }
+}
+
+// Which game keys are held, owned by the thread running the world
+// OS key repeat only sends more presses of a held key and changes nothing here.
+final class HeldKeys {
+    private final boolean[] held = new boolean[InputRing.KEYS];
+    private final boolean[] pressed = new boolean[InputRing.KEYS];  // Pressed during the last drain
+
+    void startTick() {
+        for (int k = 0; k < pressed.length; k++) {
+            pressed[k] = false;
+        }
+    }
+
+    void apply(int key, boolean down) {
+        if (down && !held[key]) {
+            pressed[key] = true;
+        }
+        held[key] = down;
+    }
+
+    boolean isHeld(int key) {
+        return held[key];
+    }
+
+    // Held now, or tapped and released again between two ticks
+    boolean isActive(int key) {
+        return held[key] || pressed[key];
+    }
+
+    // Held keys in the low KEYS bits, keys pressed since startTick() above, for the checksum file
+    int mask() {
+        int mask = 0;
+        for (int k = 0; k < InputRing.KEYS; k++) {
+            if (held[k]) mask |= 1 << k;
+            if (pressed[k]) mask |= 1 << (InputRing.KEYS + k);
+        }
+        return mask;
+    }
+
+    // The state mask() returned, in place of the live keys
+    void setMask(int mask) {
+        for (int k = 0; k < InputRing.KEYS; k++) {
+            held[k] = (mask & 1 << k) != 0;
+            pressed[k] = (mask & 1 << (InputRing.KEYS + k)) != 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package application;
+
+// Level rules plugged into the shared GameWorld engine
+// Everything that differs between levels lives behind this interface: the spawn
+// timeline, the win condition (survive or defeat a boss) and the texts shown to the player.
+interface LevelRules {
+    int getLevelNumber();
+
+    // Level unlocked by winning this one, 0 if this is the last level
+    int getNextLevel();
+
+    String getTitle();
+    String getWinCondition();
+
+    // Optional tutorial tip, null for none
+    default String getTip() { return null; }
+
+    // Boss that appears after the countdown, null if the level is won by surviving
+    default Boss.BossType getBossType() { return null; }
+
+    default boolean hasWingmen() { return false; }
+
+    // Keep the last seconds in a RewindBuffer, R then plays them backwards
+    default boolean hasRewind() { return false; }
+
+    // Extra layer interactions, added after the engine's default ones
+    default void configureCollisions(CollisionMatrix matrix) {}
+
+    // Points for each bullet that hits the boss
+    default int getBossHitScore() { return 0; }
+
+    // Spawn timeline, called once when the world starts; register the spawns on the wheel
+    void schedule(GameWorld world, TimingWheel timers);
+
+    // Rules of level n, null when there is no such level
+    static LevelRules forLevel(int level) {
+        switch (level) {
+            case 1: return new Level1Rules();
+            case 2: return new Level2Rules();
+            case 3: return new Level3Rules();
+            case 4: return new Level4Rules();
+            case 5: return new Level5Rules();
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package application;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyCode;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+
+// Common level scene: keyboard input and game loop around a GameWorld
+// The individual LevelNScene classes only choose the LevelRules. SceneManager enters a
+// level on the Scene and Canvas shared by all levels and exits it before the next screen.
+// Start with -Dspaceshooter.simThread=true to run the world on its own thread,
+// -Dspaceshooter.seed=<n> replays the same random spawns.
+// The level is saved every few seconds, with F5 and when leaving it; F9 goes back to the save.
+// Entering a level resumes its save, except in reproducible runs (a fixed seed or a checksum
+// file), which always start afresh and only save on F5.
+// In levels with rewind, holding R steps back one tick per tick, also from the end screen.
+public class LevelScene {
+    private static final boolean SIMULATION_THREAD = Boolean.getBoolean("spaceshooter.simThread");
+    // Fixed world seed for reproducible runs, a new one every level otherwise
+    private static final Long SEED = Long.getLong("spaceshooter.seed");
+    // A resumed run starts at the save's tick, so reproducible runs neither resume nor autosave
+    private static final boolean AUTOSAVE = SEED == null && !WorldChecksum.isRequested();
+    private static final long AUTOSAVE_TICKS = 5 * FixedStep.TICKS_PER_SECOND;
+
+    // Toggled with F3, shared by every level
+    private static boolean showStats = false;
+
+    private Scene scene;
+    private Stage primaryStage;
+    private String playerName;
+    private GraphicsContext gc;
+
+    private final LevelRules rules;
+    private final GameWorld world;
+    private final GameClock clock;
+    private final WorldRenderer renderer;
+    private final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<>(RenderSnapshot::new);
+    // Game key events, applied by the simulation at the start of the next tick
+    private final InputRing input = new InputRing(256);
+    private final HeldKeys heldKeys = new HeldKeys();  // Only touched by the thread running the world
+    private final LoopStats simStats = new LoopStats();
+    private final LoopStats frameStats = new LoopStats();
+    private final LoopStats inputLatency = new LoopStats();  // Key event until the first frame drawn with its effect
+    private AnimationTimer loop;
+    private SimulationThread simulationThread;
+    private boolean resultSaved = false;
+    private boolean endScreenSeen = false;
+    private boolean exited = false;
+    private boolean failed = false;  // The simulation thread stopped in the middle of a tick
+    private final WorldSave saveSlot;
+    private final RewindBuffer rewind;  // null when the level has no rewind
+    // Quick save and load, done by the thread running the world before its next tick
+    private volatile boolean saveRequested;
+    private volatile boolean loadRequested;
+
+    protected LevelScene(Stage primaryStage, String playerName, LevelRules rules) {
+        this.primaryStage = primaryStage;
+        this.playerName = playerName;
+        this.rules = rules;
+        // Simulated time starts at 0, so a run depends only on its seed and input, not on
+        // when the level was entered (the boss sweep angle is taken from the clock)
+        this.world = new GameWorld(rules, 0, SEED != null ? SEED : System.nanoTime());
+        this.clock = world.getClock();
+        this.renderer = new WorldRenderer(rules, SpriteCache.SHARED);
+        LevelResources resources = Preloader.take(rules.getLevelNumber(), playerName);
+        if (resources == null) {
+            resources = new LevelResources(rules, playerName);  // Not preloaded, e.g. picked from the level select
+        }
+        this.saveSlot = resources.saveSlot;
+        this.rewind = world.hasChecksum() ? null : resources.rewind;  // Not in the key lines of the checksum file
+        // A run left unfinished goes on where it was saved, before the first autosave
+        // could overwrite it with the fresh world; no thread runs the world yet
+        if (AUTOSAVE) {
+            saveSlot.load(world);
+        }
+    }
+
+    // Called by SceneManager with the Scene and Canvas shared by all levels
+    void enter(Scene scene, Canvas canvas) {
+        this.scene = scene;
+        this.gc = canvas.getGraphicsContext2D();
+        renderer.prepareSprites();
+        setupInputHandlers();
+        startGameLoop();
+        Preloader.levelStarted(rules, playerName);  // Uses the tutorial to warm up
+    }
+
+    private void setupInputHandlers() {
+        scene.setOnKeyPressed(e -> {
+            KeyCode key = e.getCode();
+            if (key == KeyCode.F3) {
+                showStats = !showStats;  // Toggle performance statistics
+                return;
+            }
+            if (key == KeyCode.F5) {
+                saveRequested = true;
+                return;
+            }
+            if (key == KeyCode.F9) {
+                loadRequested = !world.hasChecksum();
+                return;
+            }
+            if (key == KeyCode.R) {
+                input.offer(InputRing.REWIND, true, System.nanoTime());
+                return;
+            }
+
+            RenderSnapshot state = snapshots.front();
+            if (state.finished) {
+                switch (key) {
+                    case SPACE:
+                        if (state.victory && rules.getNextLevel() > 0) {
+                            // Enter next level
+                            Main.startLevel(primaryStage, playerName, rules.getNextLevel());
+                        }
+                        break;
+                    case ENTER:
+                        // Replay current level
+                        Main.startLevel(primaryStage, playerName, rules.getLevelNumber());
+                        break;
+                    case ESCAPE:
+                        // Return to main menu
+                        Main.startLevelSelect(primaryStage, playerName);
+                        break;
+                    default:
+                        break;
+                }
+                return;
+            }
+
+            int gameKey = gameKey(key);
+            if (gameKey >= 0) {
+                input.offer(gameKey, true, System.nanoTime());
+                return;
+            }
+
+            switch (key) {
+                case P: clock.togglePause(); break;
+                case N: clock.requestStep(); break;  // Single step while paused
+                case T: clock.toggleSlowMotion(); break;
+                case ESCAPE:
+                    Main.startLevelSelect(primaryStage, playerName);
+                    break;
+                default:
+                    break;
+            }
+        });
+
+        // Releases always go through, so no key stays held across the end screen
+        scene.setOnKeyReleased(e -> {
+            int gameKey = gameKey(e.getCode());
+            if (gameKey >= 0) {
+                input.offer(gameKey, false, System.nanoTime());
+            }
+        });
+    }
+
+    private static int gameKey(KeyCode key) {
+        switch (key) {
+            case LEFT: return InputRing.LEFT;
+            case RIGHT: return InputRing.RIGHT;
+            case UP: return InputRing.UP;
+            case DOWN: return InputRing.DOWN;
+            case SPACE: return InputRing.FIRE;
+            case R: return InputRing.REWIND;
+            default: return -1;
+        }
+    }
+
+    private void startGameLoop() {
+        // First snapshot, so there is something to draw before the first tick
+        publishSnapshot(1.0);
+
+        if (SIMULATION_THREAD) {
+            simulationThread = new SimulationThread(clock, this::tick, this::publishSnapshot, simStats, this::simulationFailed);
+            simulationThread.start();
+            SceneManager.loopStarted();
+            loop = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    long renderStart = System.nanoTime();
+                    render();
+                    frameStats.record(now, 1, System.nanoTime() - renderStart, 0);
+                }
+            };
+        } else {
+            loop = new GameLoop(clock, simStats, frameStats) {
+                @Override
+                protected void update() {
+                    tick();
+                }
+
+                @Override
+                protected void render(double alpha) {
+                    publishSnapshot(alpha);
+                    LevelScene.this.render();
+                }
+            };
+        }
+        loop.start();
+        SceneManager.loopStarted();
+    }
+
+    // One simulation tick, on whichever thread runs the world
+    private void tick() {
+        if (loadRequested) {
+            loadRequested = false;
+            if (saveSlot.load(world) && rewind != null) {
+                rewind.clear();
+            }
+        }
+        if (saveRequested) {
+            saveRequested = false;
+            autosave();
+        }
+        long inputTime = input.drainInto(heldKeys);
+        if (rewind != null && heldKeys.isActive(InputRing.REWIND)) {
+            rewind.stepBack(world);
+            return;
+        }
+        world.applyInput(heldKeys, inputTime);
+        boolean wasFinished = world.isFinished();
+        world.update();
+        if (rewind != null && !wasFinished) {
+            rewind.record(world);  // Up to the tick that ended the level, not the end screen
+        }
+        if (AUTOSAVE && clock.ticks() % AUTOSAVE_TICKS == 0) {
+            autosave();
+        }
+    }
+
+    // Finished levels are not saved, F9 then still returns to the last running state
+    private void autosave() {
+        if (!world.isFinished()) {
+            saveSlot.save(world);
+        }
+    }
+
+    private void publishSnapshot(double alpha) {
+        RenderSnapshot snapshot = snapshots.back();
+        world.writeSnapshot(snapshot);
+        snapshot.alpha = alpha;
+        snapshot.published = System.nanoTime();
+        snapshots.publish();
+    }
+
+    // Draw the newest snapshot, on the FX thread
+    private void render() {
+        RenderSnapshot snapshot = snapshots.front();
+        // Carry the alpha on by the time since publishing; the simulation thread
+        // publishes once per tick batch while frames keep coming
+        long sincePublished = clock.scale(System.nanoTime() - snapshot.published);
+        snapshot.interpolate(Math.min(1.0, snapshot.alpha + (double) sincePublished / FixedStep.STEP_NANOS));
+        renderer.render(gc, snapshot);
+        if (snapshot.inputTime != 0) {
+            // First frame that shows the input, later frames of the same snapshot do not count
+            long now = System.nanoTime();
+            inputLatency.record(now, 1, now - snapshot.inputTime, 0);
+            snapshot.inputTime = 0;
+        }
+        renderClockState();
+        if (showStats) {
+            renderStats();
+        }
+        if (!snapshot.finished) {
+            // Running again after a rewind out of the end screen, the next end counts anew
+            resultSaved = false;
+            endScreenSeen = false;
+        }
+        if (snapshot.victory && !resultSaved) {
+            saveResult(snapshot.score);
+        }
+        if (snapshot.finished && !endScreenSeen) {
+            endScreenSeen = true;
+            Preloader.levelFinished(rules, playerName, snapshot.victory);
+        }
+    }
+
+    // Pause and slow motion indicators, read directly from the clock
+    // because no new snapshot is published while paused
+    private void renderClockState() {
+        gc.setFill(Color.YELLOW);
+        gc.setFont(Font.font("Arial", 16));
+        if (clock.isPaused()) {
+            gc.fillText("PAUSED (P: resume, N: step)", 10, 110);
+        } else if (clock.getTimeScale() != 1.0) {
+            gc.fillText(String.format("Slow motion x%.2f", clock.getTimeScale()), 10, 110);
+        }
+    }
+
+    private void renderStats() {
+        gc.setFill(Color.LIME);
+        gc.setFont(Font.font("Arial", 12));
+        RenderQueue queue = renderer.getQueue();
+        gc.fillText(String.format("Draws/frame: %d  State changes/frame: %d (unsorted %d)", queue.getDraws(),
+                queue.getStateChanges(), queue.getUnsortedStateChanges()), 10, 485);
+        SpriteCache sprites = SpriteCache.SHARED;
+        gc.fillText(String.format("Sprite cache: %d images, %d KB, hit rate %.1f%%", sprites.getImageCount(),
+                sprites.getBytes() / 1024, sprites.getHitRate() * 100), 10, 500);
+        if (rewind != null) {
+            gc.fillText(String.format("Rewind: %.1f s in %d KB", (double) rewind.frames() / FixedStep.TICKS_PER_SECOND,
+                    rewind.bytesUsed() / 1024), 10, 515);
+        }
+        gc.fillText(String.format("Input latency: %.1f ms  Key events/s: %d  Dropped: %d",
+                inputLatency.getMillisEach(), inputLatency.getPerSecond(), input.getDropped()), 10, 530);
+        gc.fillText(String.format("FPS: %d  Ticks/s: %d%s  Live game loops: %d", frameStats.getPerSecond(),
+                simStats.getPerSecond(), SIMULATION_THREAD ? "  (simulation thread)" : "", SceneManager.liveLoops()), 10, 545);
+        gc.fillText(String.format("Seed: %d  Explosion pool hits/misses: %s  Enemies: %d  Meteors: %d", world.getSeed(),
+                poolStats(world.getExplosionPool()), world.getEnemyCount(), world.getMeteorCount()), 10, 560);
+        gc.fillText(String.format("Sim: %.3f ms/tick  Render: %.3f ms/frame  Dropped: %.1f ms",
+                simStats.getMillisEach(), frameStats.getMillisEach(), simStats.getDroppedMillis()), 10, 575);
+        gc.fillText(String.format("Collision pairs/tick: %d tested, %d hit", world.getPairsTested(), world.getPairsHit()), 10, 590);
+    }
+
+    private static String poolStats(ObjectPool<?> pool) {
+        return pool.getHits() + "/" + pool.getMisses();
+    }
+
+    // Update highest score and unlock next level
+    private void saveResult(int score) {
+        resultSaved = true;
+        UserData.updateLevelScore(playerName, rules.getLevelNumber(), score);
+        if (rules.getNextLevel() > 0) {
+            UserData.updateUnlockedLevel(playerName, rules.getNextLevel());
+        }
+    }
+
+    // On the FX thread, unless the level was left meanwhile: back to the level select
+    private void simulationFailed() {
+        if (!exited) {
+            failed = true;
+            Main.startLevelSelect(primaryStage, playerName);
+        }
+    }
+
+    // Called by SceneManager before the next screen is shown: stop the simulation, save the
+    // run and let go of the shared Scene, after which nothing refers to this level any more
+    void exit() {
+        exited = true;
+        loop.stop();
+        SceneManager.loopStopped();
+        if (simulationThread != null) {
+            simulationThread.shutdown();
+            SceneManager.loopStopped();
+        }
+        scene.setOnKeyPressed(null);
+        scene.setOnKeyReleased(null);
+        world.closeChecksum();
+        saveSlot.finish();
+        if (!AUTOSAVE || failed) {
+            return;  // A reproducible run leaves the save as it found it, a failed one is half updated
+        }
+        if (world.isFinished()) {
+            saveSlot.delete();  // The run is over, the next visit starts the level afresh
+        } else {
+            autosave();
+            saveSlot.finish();
+        }
+    }
+}
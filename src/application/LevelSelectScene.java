@@ -17,7 +17,6 @@ import javafx.scene.layout.BackgroundPosition;
 import javafx.scene.layout.BackgroundRepeat;
 import javafx.scene.layout.BackgroundSize;
 import javafx.scene.layout.Background;
-import javafx.scene.media.MediaPlayer;
 
 public class LevelSelectScene {
     private Scene scene;
@@ -86,17 +85,7 @@ public class LevelSelectScene {
         
         Button logoutBtn = new Button("Logout");
         styleButton(logoutBtn, "#e94560");
-        logoutBtn.setOnAction(e -> {
-            // Stop current music first
-            MediaPlayer currentPlayer = Main.getMediaPlayer();
-            if (currentPlayer != null) {
-                currentPlayer.stop();
-            }
-            
-            // Then restart to start scene
-            Main main = new Main();
-            main.start(primaryStage);
-        });
+        logoutBtn.setOnAction(e -> Main.showStart(primaryStage));
         
         bottomButtons.getChildren().add(logoutBtn);
         
@@ -164,24 +153,7 @@ public class LevelSelectScene {
     }
     
     private void startLevel(int level) {
-        Main main = new Main();
-        switch (level) {
-            case 1:
-                main.startLevel1(primaryStage, username);
-                break;
-            case 2:
-                main.startLevel2(primaryStage, username);
-                break;
-            case 3:
-                main.startLevel3(primaryStage, username);
-                break;
-            case 4:
-                main.startLevel4(primaryStage, username);
-                break;
-            case 5:
-                main.startLevel5(primaryStage, username);
-                break;
-        }
+        Main.startLevel(primaryStage, username, level);
     }
     
     public Scene getScene() {
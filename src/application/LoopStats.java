@@ -0,0 +1,42 @@
+package application;
+
+// Rolling loop statistics over one-second windows
+// Written by a single thread (game loop or simulation thread), read by the FX thread
+// for the F3 overlay.
+final class LoopStats {
+    private static final long WINDOW = 1_000_000_000L;
+
+    // Current window
+    private long windowStart = -1;
+    private int count;
+    private long costNanos;
+    private long droppedNanos;
+
+    // Last complete window
+    private volatile int perSecond;
+    private volatile double millisEach;
+    private volatile double droppedMillis;
+
+    // Record events (ticks or frames) that took costNanos in total
+    void record(long now, int events, long cost, long dropped) {
+        if (windowStart < 0) {
+            windowStart = now;
+        }
+        count += events;
+        costNanos += cost;
+        droppedNanos += dropped;
+        if (now - windowStart >= WINDOW) {
+            perSecond = count;
+            millisEach = count > 0 ? costNanos / 1_000_000.0 / count : 0;
+            droppedMillis = droppedNanos / 1_000_000.0;
+            windowStart = now;
+            count = 0;
+            costNanos = 0;
+            droppedNanos = 0;
+        }
+    }
+
+    int getPerSecond() { return perSecond; }
+    double getMillisEach() { return millisEach; }
+    double getDroppedMillis() { return droppedMillis; }
+}
@@ -36,6 +36,9 @@ public class Main extends Application {
         if (mediaPlayer != null) {
             mediaPlayer.stop();
         }
+        if (WorldChecksum.hasDiverged()) {
+            System.exit(1);  // For scripts comparing two runs
+        }
     }
     
     // Add getter for mediaPlayer to control music in other scenes
@@ -43,34 +46,34 @@ public class Main extends Application {
         return mediaPlayer;
     }
     
-    public void startLevel1(Stage primaryStage, String username) {
-        Level1Scene level1Scene = new Level1Scene(primaryStage, username);
-        primaryStage.setScene(level1Scene.getScene());
-    }
-    
-    public void startLevel2(Stage primaryStage, String username) {
-        Level2Scene level2Scene = new Level2Scene(primaryStage, username);
-        primaryStage.setScene(level2Scene.getScene());
-    }
-    
-    public void startLevel3(Stage primaryStage, String username) {
-        Level3Scene level3Scene = new Level3Scene(primaryStage, username);
-        primaryStage.setScene(level3Scene.getScene());
-    }
-    
-    public void startLevel4(Stage primaryStage, String username) {
-        Level4Scene level4Scene = new Level4Scene(primaryStage, username);
-        primaryStage.setScene(level4Scene.getScene());
+    // Exit the running level first, its world is freed before the next one is built
+    public static void startLevel(Stage primaryStage, String username, int level) {
+        SceneManager.exitLevel(primaryStage);
+        switch (level) {
+            case 1: SceneManager.enterLevel(primaryStage, new Level1Scene(primaryStage, username)); break;
+            case 2: SceneManager.enterLevel(primaryStage, new Level2Scene(primaryStage, username)); break;
+            case 3: SceneManager.enterLevel(primaryStage, new Level3Scene(primaryStage, username)); break;
+            case 4: SceneManager.enterLevel(primaryStage, new Level4Scene(primaryStage, username)); break;
+            case 5: SceneManager.enterLevel(primaryStage, new Level5Scene(primaryStage, username)); break;
+            default: startLevelSelect(primaryStage, username); break;
+        }
     }
     
-    public void startLevel5(Stage primaryStage, String username) {
-        Level5Scene level5Scene = new Level5Scene(primaryStage, username);
-        primaryStage.setScene(level5Scene.getScene());
+    public static void startLevelSelect(Stage primaryStage, String username) {
+        SceneManager.exitLevel(primaryStage);
+        LevelSelectScene levelSelectScene = new LevelSelectScene(primaryStage, username);
+        SceneManager.showMenu(primaryStage, levelSelectScene.getScene());
     }
     
-    public void startLevelSelect(Stage primaryStage, String username) {
-        LevelSelectScene levelSelectScene = new LevelSelectScene(primaryStage, username);
-        primaryStage.setScene(levelSelectScene.getScene());
+    // Logout: back to the start scene with the music from the beginning, as after launch
+    public static void showStart(Stage primaryStage) {
+        SceneManager.exitLevel(primaryStage);
+        if (mediaPlayer != null) {
+            mediaPlayer.stop();  // Also rewinds
+            mediaPlayer.play();
+        }
+        StartScene startScene = new StartScene(primaryStage);
+        SceneManager.showMenu(primaryStage, startScene.getScene());
     }
     
     public static void main(String[] args) {
@@ -0,0 +1,188 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Meteor archetype: motion, size, health and the three rotating spots of every meteor
+// Spot columns hold SPOTS values per row, row i at [i * SPOTS, i * SPOTS + SPOTS).
+final class MeteorStore extends Archetype {
+    static final int SPOTS = 3;
+
+    double[] x;
+    double[] y;
+    double[] previousX;  // Before this tick's move, for render interpolation; x - dx is off after a bounce
+    double[] previousY;
+    double[] dx;
+    double[] dy;
+    int[] size;    // MeteorSize ordinal
+    int[] health;
+    double[] spotX;  // Offset from the center, turned by Meteor.ROTATION every tick
+    double[] spotY;
+    double[] spotSize;
+    Collider[] collider;
+
+    MeteorStore(int capacity) {
+        super(capacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        dx = new double[capacity];
+        dy = new double[capacity];
+        size = new int[capacity];
+        health = new int[capacity];
+        spotX = new double[capacity * SPOTS];
+        spotY = new double[capacity * SPOTS];
+        spotSize = new double[capacity * SPOTS];
+        collider = new Collider[capacity];
+        for (int i = 0; i < capacity; i++) {
+            collider[i] = new Collider();
+        }
+    }
+
+    // Returns the new row
+    int spawn(double px, double py, Meteor.MeteorSize meteorSize, GameRandom random) {
+        int row = addRow();
+        x[row] = previousX[row] = px;
+        y[row] = previousY[row] = py;
+        size[row] = meteorSize.ordinal();
+        health[row] = meteorSize.getHealth();
+
+        // Random speed
+        dx[row] = (random.nextDouble() - 0.5) * 4;  // Random speed between -2 and 2
+        dy[row] = 2 + random.nextDouble() * 3;      // Random speed between 2 and 5
+
+        // Generate three different sized spots
+        double radius = meteorSize.getSize() * 0.3;  // Distance from center to spot
+        for (int s = row * SPOTS; s < row * SPOTS + SPOTS; s++) {
+            spotSize[s] = meteorSize.getSize() * (0.15 + random.nextDouble() * 0.15);  // 15%-30% of the meteor size
+            double angle = random.nextDouble() * Math.PI * 2;  // Random initial angle
+            spotX[s] = radius * TrigTable.SHARED.cos(angle);
+            spotY[s] = radius * TrigTable.SHARED.sin(angle);
+        }
+        return row;
+    }
+
+    // Movement system over rows [from, to)
+    void move(int from, int to) {
+        for (int i = from; i < to; i++) {
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+            x[i] += dx[i];
+            y[i] += dy[i];
+
+            // Turn the spots by one rotation step
+            for (int s = i * SPOTS; s < i * SPOTS + SPOTS; s++) {
+                double sx = spotX[s], sy = spotY[s];
+                spotX[s] = Meteor.ROTATION.rotateX(sx, sy);
+                spotY[s] = Meteor.ROTATION.rotateY(sx, sy);
+            }
+
+            // Prevent meteor from going out of screen boundaries
+            if (x[i] < 0 || x[i] > 800 - Meteor.SIZES[size[i]].getSize()) {
+                dx[i] = -dx[i];
+            }
+        }
+    }
+
+    // x, y is the top-left corner of the drawn rock
+    Collider collider(int row) {
+        double radius = Meteor.SIZES[size[row]].getSize() / 2.0;
+        return collider[row].circle(x[row] + radius, y[row] + radius, radius);
+    }
+
+    void checksum(WorldChecksum sum) {
+        for (int i = 0; i < count; i++) {
+            sum.add(x[i]);
+            sum.add(y[i]);
+            sum.add(dx[i]);
+            sum.add(dy[i]);
+            sum.add(health[i]);
+        }
+    }
+
+    void save(ByteBuffer out) {
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            out.putDouble(x[i]);
+            out.putDouble(y[i]);
+            out.putDouble(dx[i]);
+            out.putDouble(dy[i]);
+            out.putInt(size[i]);
+            out.putInt(health[i]);
+            for (int s = i * SPOTS; s < i * SPOTS + SPOTS; s++) {
+                out.putDouble(spotX[s]);
+                out.putDouble(spotY[s]);
+                out.putDouble(spotSize[s]);
+            }
+        }
+    }
+
+    void restore(ByteBuffer in) {
+        clear();
+        for (int n = in.getInt(); n > 0; n--) {
+            int row = addRow();
+            x[row] = previousX[row] = in.getDouble();
+            y[row] = previousY[row] = in.getDouble();
+            dx[row] = in.getDouble();
+            dy[row] = in.getDouble();
+            size[row] = in.getInt();
+            health[row] = in.getInt();
+            for (int s = row * SPOTS; s < row * SPOTS + SPOTS; s++) {
+                spotX[s] = in.getDouble();
+                spotY[s] = in.getDouble();
+                spotSize[s] = in.getDouble();
+            }
+        }
+    }
+
+    void snapshot(RenderSnapshot out) {
+        for (int i = 0; i < count; i++) {
+            out.addSprite(RenderSnapshot.METEOR, previousX[i], previousY[i], x[i], y[i], size[i], 0);
+            for (int s = i * SPOTS; s < i * SPOTS + SPOTS; s++) {
+                out.addDetail(spotX[s]);
+                out.addDetail(spotY[s]);
+                out.addDetail(spotSize[s]);
+            }
+        }
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        int old = collider.length;
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        previousX = Arrays.copyOf(previousX, newCapacity);
+        previousY = Arrays.copyOf(previousY, newCapacity);
+        dx = Arrays.copyOf(dx, newCapacity);
+        dy = Arrays.copyOf(dy, newCapacity);
+        size = Arrays.copyOf(size, newCapacity);
+        health = Arrays.copyOf(health, newCapacity);
+        spotX = Arrays.copyOf(spotX, newCapacity * SPOTS);
+        spotY = Arrays.copyOf(spotY, newCapacity * SPOTS);
+        spotSize = Arrays.copyOf(spotSize, newCapacity * SPOTS);
+        collider = Arrays.copyOf(collider, newCapacity);
+        for (int i = old; i < newCapacity; i++) {
+            collider[i] = new Collider();
+        }
+    }
+
+    @Override
+    protected void moveRow(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        previousX[to] = previousX[from];
+        previousY[to] = previousY[from];
+        dx[to] = dx[from];
+        dy[to] = dy[from];
+        size[to] = size[from];
+        health[to] = health[from];
+        System.arraycopy(spotX, from * SPOTS, spotX, to * SPOTS, SPOTS);
+        System.arraycopy(spotY, from * SPOTS, spotY, to * SPOTS, SPOTS);
+        System.arraycopy(spotSize, from * SPOTS, spotSize, to * SPOTS, SPOTS);
+        // Colliders are scratch shapes, swap them so every row keeps its own
+        Collider shape = collider[to];
+        collider[to] = collider[from];
+        collider[from] = shape;
+    }
+}
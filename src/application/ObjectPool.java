@@ -0,0 +1,45 @@
+package application;
+
+import java.util.function.Supplier;
+
+// Bounded object pool
+// Short-lived game objects are handed back with release() when they leave the world and
+// reused by the next acquire(), so steady gameplay does not allocate. Explosions are
+// pooled, and wing-men and power-ups for GameWorld.restore(); enemies and meteors are rows
+// of their Archetype stores. Objects released while the pool is full are left to the GC.
+// Only used by the simulation; the counters are read by the F3 overlay.
+final class ObjectPool<T> {
+    private final Supplier<T> factory;
+    private final Object[] free;
+    private int freeCount;
+
+    private volatile long hits;    // acquire() served from the pool
+    private volatile long misses;  // acquire() had to allocate
+
+    ObjectPool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.free = new Object[capacity];
+    }
+
+    // A reset is the caller's job, the object still holds its old state
+    @SuppressWarnings("unchecked")
+    T acquire() {
+        if (freeCount == 0) {
+            misses++;
+            return factory.get();
+        }
+        hits++;
+        T obj = (T) free[--freeCount];
+        free[freeCount] = null;
+        return obj;
+    }
+
+    void release(T obj) {
+        if (freeCount < free.length) {
+            free[freeCount++] = obj;
+        }
+    }
+
+    long getHits() { return hits; }
+    long getMisses() { return misses; }
+}
@@ -0,0 +1,67 @@
+package application;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Parallel movement phase for enemies and meteors
+// The entities are cut into chunks of CHUNK and updated on the common ForkJoinPool. A chunk
+// only touches its own entities and moving has no other side effects (shots are timed
+// events on the TimingWheel), so the world ends up identical to a serial loop.
+// Small waves are not worth the hand-off and run serially on the calling thread.
+final class ParallelUpdate {
+    private static final int CHUNK = 64;                  // Entities per task
+    private static final int PARALLEL_MIN = CHUNK * 2;    // Fewer entities run serially
+
+    private final boolean parallel;
+
+    // Inputs of the running update, read by the tasks
+    private EnemyStore enemies;
+    private MeteorStore meteors;
+
+    ParallelUpdate(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // Move every enemy and meteor
+    void update(EnemyStore enemies, MeteorStore meteors) {
+        this.enemies = enemies;
+        this.meteors = meteors;
+        int total = enemies.count + meteors.count;
+        if (!parallel || total < PARALLEL_MIN) {
+            updateRange(0, total);
+            return;
+        }
+        int chunks = (total + CHUNK - 1) / CHUNK;
+        ForkJoinPool.commonPool().invoke(new Chunks(0, chunks, total));
+    }
+
+    // Enemies come first in the index space, then meteors
+    private void updateRange(int from, int to) {
+        int enemyCount = enemies.count;
+        enemies.move(Math.min(from, enemyCount), Math.min(to, enemyCount));
+        meteors.move(Math.max(from, enemyCount) - enemyCount, Math.max(to, enemyCount) - enemyCount);
+    }
+
+    // Chunks [first, last), split in halves down to one chunk per task
+    private final class Chunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int first, last, total;
+
+        Chunks(int first, int last, int total) {
+            this.first = first;
+            this.last = last;
+            this.total = total;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                updateRange(first * CHUNK, Math.min(total, last * CHUNK));
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new Chunks(first, middle, total), new Chunks(middle, last, total));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package application;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+// Background preloading and JIT warm-up
+// The first scored seconds of a level used to run on cold, interpreted code and stutter,
+// right after the TUTORIAL_DURATION in which almost nothing happens. A low-priority daemon
+// thread now uses that window:
+// - it plays a short synthetic game of the level against a throwaway world (update,
+//   collisions, snapshots, interpolation, rewind deltas and vector drawing on a scratch
+//   canvas), so the JIT has compiled those paths before they count;
+// - it hands the last frame of that game to the FX thread, which draws it a few times
+//   through SpriteCache.SHARED, the image path the level itself uses;
+// - it builds the LevelResources of the level that comes next.
+// On the end screen it prepares and warms up the level the player is likely to pick.
+// Each level is warmed up once per run, after that the code stays compiled.
+final class Preloader {
+    private static final int WARMUP_TICKS = 20 * FixedStep.TICKS_PER_SECOND;  // Well past the tutorial of the throwaway world
+    private static final long WARMUP_BUDGET = 3_000_000_000L;  // Wall time, so it ends before the tutorial does
+    private static final long WARMUP_SEED = 0x5eedL;
+    private static final int SWEEP_TICKS = 90;  // The synthetic player turns around this often
+    private static final int SPRITE_FRAMES = 120;  // Drawn on the FX thread, one per runLater
+
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "preload");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final Set<Integer> warmed = new HashSet<>();  // Only touched by the worker
+    private static final AtomicReference<LevelResources> prepared = new AtomicReference<>();
+
+    private Preloader() {
+    }
+
+    // During the tutorial: warm up this level and build the resources of the next one
+    static void levelStarted(LevelRules rules, String playerName) {
+        worker.execute(() -> {
+            warmUp(rules);
+            prepare(rules.getNextLevel(), playerName);
+        });
+    }
+
+    // On the end screen: the next level after a victory, a replay otherwise
+    static void levelFinished(LevelRules rules, String playerName, boolean victory) {
+        int level = victory && rules.getNextLevel() > 0 ? rules.getNextLevel() : rules.getLevelNumber();
+        worker.execute(() -> {
+            LevelRules next = LevelRules.forLevel(level);
+            if (next != null) {
+                warmUp(next);
+                prepare(level, playerName);
+            }
+        });
+    }
+
+    // Resources built ahead for this level, null when none are ready
+    static LevelResources take(int level, String playerName) {
+        LevelResources resources = prepared.get();
+        if (resources != null && resources.matches(level, playerName) && prepared.compareAndSet(resources, null)) {
+            return resources;
+        }
+        return null;
+    }
+
+    private static void prepare(int level, String playerName) {
+        LevelResources current = prepared.get();
+        if (current != null && current.matches(level, playerName)) {
+            return;
+        }
+        LevelRules rules = LevelRules.forLevel(level);
+        if (rules != null) {
+            prepared.set(new LevelResources(rules, playerName));
+        }
+    }
+
+    private static void warmUp(LevelRules rules) {
+        if (!warmed.add(rules.getLevelNumber())) {
+            return;
+        }
+        long start = System.nanoTime();
+        HeldKeys keys = new HeldKeys();
+        keys.apply(InputRing.FIRE, true);
+        RenderSnapshot snapshot = new RenderSnapshot();
+        RewindBuffer rewind = rules.hasRewind() ? new RewindBuffer(256 * 1024) : null;
+        WorldRenderer renderer = new WorldRenderer(rules);
+        // Not attached to a scene, so it may be drawn on from this thread
+        GraphicsContext gc = new Canvas(GameWorld.WIDTH, GameWorld.HEIGHT).getGraphicsContext2D();
+
+        GameWorld world = null;
+        for (int tick = 0; tick < WARMUP_TICKS && System.nanoTime() - start < WARMUP_BUDGET; tick++) {
+            if (world == null || world.isFinished()) {
+                world = new GameWorld(rules, 0, WARMUP_SEED + tick, null);
+                if (rewind != null) {
+                    rewind.clear();
+                }
+            }
+            // Sweep left and right with the trigger held
+            boolean left = tick / SWEEP_TICKS % 2 == 0;
+            keys.startTick();
+            keys.apply(InputRing.LEFT, left);
+            keys.apply(InputRing.RIGHT, !left);
+            world.getClock().advance();
+            world.applyInput(keys, 0);
+            world.update();
+            if (rewind != null) {
+                rewind.record(world);
+            }
+            world.writeSnapshot(snapshot);
+            snapshot.interpolate(0.5);
+            gc.clearRect(0, 0, GameWorld.WIDTH, GameWorld.HEIGHT);  // A full clear also drops the queued drawing
+            renderer.render(gc, snapshot);
+        }
+        warmSprites(rules, snapshot);  // No longer touched by this thread
+    }
+
+    // SHARED makes its images with Canvas.snapshot, which only runs on the FX thread, so
+    // its drawImage path is warmed there; one frame per runLater, the level on screen
+    // never waits for more than one
+    private static void warmSprites(LevelRules rules, RenderSnapshot snapshot) {
+        WorldRenderer renderer = new WorldRenderer(rules, SpriteCache.SHARED);
+        GraphicsContext gc = new Canvas(GameWorld.WIDTH, GameWorld.HEIGHT).getGraphicsContext2D();
+        Platform.runLater(new Runnable() {
+            private int frames = SPRITE_FRAMES;
+
+            @Override
+            public void run() {
+                gc.clearRect(0, 0, GameWorld.WIDTH, GameWorld.HEIGHT);
+                renderer.render(gc, snapshot);
+                if (--frames > 0) {
+                    Platform.runLater(this);
+                }
+            }
+        });
+    }
+}
+
+// What a LevelScene allocates besides its world, built ahead by the Preloader
+final class LevelResources {
+    static final int REWIND_BUDGET = 2 << 20;  // Bytes of world deltas, about twice what 10 s of a boss fight needs
+
+    private final int level;
+    private final String playerName;
+    final WorldSave saveSlot;
+    final RewindBuffer rewind;  // null when the level has no rewind
+
+    LevelResources(LevelRules rules, String playerName) {
+        this.level = rules.getLevelNumber();
+        this.playerName = playerName;
+        this.saveSlot = new WorldSave(playerName, level);
+        this.rewind = rules.hasRewind() ? new RewindBuffer(REWIND_BUDGET) : null;
+    }
+
+    boolean matches(int level, String playerName) {
+        return this.level == level && this.playerName.equals(playerName);
+    }
+}
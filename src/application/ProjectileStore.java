@@ -0,0 +1,133 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Projectile store: one kind of bullet kept as parallel primitive arrays
+// Projectiles are created and destroyed every few ticks, so instead of one object per
+// bullet in an ArrayList they live here as plain x/y/dx/dy rows. Removal swaps the last
+// row into the gap, nothing is shifted and nothing is allocated once the arrays are big
+// enough. Iterate by index; after remove(i) the row at i is a different projectile.
+// While a SpatialHash refers to the rows, hits only kill() them and compact() removes
+// them afterwards, so the row indices stay valid.
+final class ProjectileStore {
+    static final int DEAD = 1;  // Flag: hit something, removed by compact()
+
+    private final int spriteKind;  // RenderSnapshot kind used when drawing
+
+    int count;
+    double[] x;
+    double[] y;
+    double[] dx;
+    double[] dy;
+    int[] flags;
+
+    ProjectileStore(int spriteKind, int capacity) {
+        this.spriteKind = spriteKind;
+        x = new double[capacity];
+        y = new double[capacity];
+        dx = new double[capacity];
+        dy = new double[capacity];
+        flags = new int[capacity];
+    }
+
+    void add(double px, double py, double vx, double vy) {
+        if (count == x.length) {
+            int capacity = x.length * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            dx = Arrays.copyOf(dx, capacity);
+            dy = Arrays.copyOf(dy, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        x[count] = px;
+        y[count] = py;
+        dx[count] = vx;
+        dy[count] = vy;
+        flags[count] = 0;
+        count++;
+    }
+
+    // Swap-remove, the caller must look at index i again
+    void remove(int i) {
+        int last = --count;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            dx[i] = dx[last];
+            dy[i] = dy[last];
+            flags[i] = flags[last];
+        }
+    }
+
+    void kill(int i) {
+        flags[i] |= DEAD;
+    }
+
+    boolean isDead(int i) {
+        return (flags[i] & DEAD) != 0;
+    }
+
+    // Remove every killed row
+    void compact() {
+        for (int i = 0; i < count; i++) {
+            if (isDead(i)) {
+                remove(i--);
+            }
+        }
+    }
+
+    // Move every projectile by its velocity in one pass
+    void move() {
+        for (int i = 0; i < count; i++) {
+            x[i] += dx[i];
+            y[i] += dy[i];
+        }
+    }
+
+    // Position before this tick's move(), the start of the swept segment and of render interpolation
+    double previousX(int i) { return x[i] - dx[i]; }
+    double previousY(int i) { return y[i] - dy[i]; }
+
+    void clear() {
+        count = 0;
+    }
+
+    int size() {
+        return count;
+    }
+
+    void checksum(WorldChecksum sum) {
+        sum.add(count);
+        for (int i = 0; i < count; i++) {
+            sum.add(x[i]);
+            sum.add(y[i]);
+            sum.add(dx[i]);
+            sum.add(dy[i]);
+        }
+    }
+
+    // Only between ticks, when no row is flagged
+    void save(ByteBuffer out) {
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            out.putDouble(x[i]);
+            out.putDouble(y[i]);
+            out.putDouble(dx[i]);
+            out.putDouble(dy[i]);
+        }
+    }
+
+    void restore(ByteBuffer in) {
+        clear();
+        for (int n = in.getInt(); n > 0; n--) {
+            add(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+        }
+    }
+
+    void snapshot(RenderSnapshot out) {
+        for (int i = 0; i < count; i++) {
+            out.addSprite(spriteKind, previousX(i), previousY(i), x[i], y[i], 0, 0);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package application;
+
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Paint;
+
+// Draw commands of one frame, emitted sorted by layer and paint state
+// Entities used to set the fill and global alpha around every shape, so hundreds of
+// bullets meant hundreds of state changes in the canvas command buffer. Their draw
+// functions now add shapes here, each with a part number and its paint and alpha;
+// flush() sorts by layer, then state, then submission order, and changes GraphicsContext
+// state only between runs of different states.
+// A layer is the entity kind set with setLayer() plus the part, so every part is drawn
+// for all entities of a kind before the next part (all bullet cores, then all glows).
+// Where two entities of one kind overlap, their parts may interleave differently than
+// before; across kinds the order is unchanged.
+// Sort keys: layer in the top 16 bits, state in the next 24, submission order in the
+// low 24, sorted as primitive longs without allocating.
+final class RenderQueue {
+    static final int PARTS = 8;  // Parts per layer
+
+    private static final int FILL_OVAL = 0;
+    private static final int FILL_RECT = 1;
+    private static final int STROKE_OVAL = 2;
+    private static final int STROKE_RECT = 3;
+    private static final int SPRITE = 4;
+    private static final int ORDER_BITS = 24;
+    private static final long ORDER_MASK = (1L << ORDER_BITS) - 1;
+
+    private final SpriteCache sprites;
+    private int layer;  // First layer of the kind being added
+
+    // Items, grown on demand
+    private long[] keys = new long[1024];
+    private int[] shape = new int[1024];
+    private int[] state = new int[1024];
+    private double[] x = new double[1024];
+    private double[] y = new double[1024];
+    private double[] w = new double[1024];
+    private double[] h = new double[1024];
+    private Sprite[] sprite = new Sprite[1024];
+    private int count;
+
+    // Paint and alpha of every state seen so far, by id; a few dozen in this game
+    private Paint[] statePaint = new Paint[64];
+    private double[] stateAlpha = new double[64];
+    private int stateCount;
+    private int lastState = -1;  // Shortcut for runs of the same state
+
+    // Of the last flush
+    private int draws;
+    private int stateChanges;
+    private int unsortedStateChanges;  // What drawing in submission order would have cost
+
+    RenderQueue(SpriteCache sprites) {
+        this.sprites = sprites;
+        state(null, 1.0);  // State 0: images and sprite painters, full alpha
+    }
+
+    // Kind of the entities added next, layers are drawn in increasing order
+    void setLayer(int kindLayer) {
+        this.layer = kindLayer * PARTS;
+    }
+
+    void fillOval(int part, Paint paint, double alpha, double ox, double oy, double width, double height) {
+        add(FILL_OVAL, part, state(paint, alpha), ox, oy, width, height, null);
+    }
+
+    void fillOval(int part, Paint paint, double ox, double oy, double width, double height) {
+        fillOval(part, paint, 1.0, ox, oy, width, height);
+    }
+
+    void fillRect(int part, Paint paint, double rx, double ry, double width, double height) {
+        add(FILL_RECT, part, state(paint, 1.0), rx, ry, width, height, null);
+    }
+
+    void strokeOval(int part, Paint paint, double ox, double oy, double width, double height) {
+        add(STROKE_OVAL, part, state(paint, 1.0), ox, oy, width, height, null);
+    }
+
+    void strokeRect(int part, Paint paint, double rx, double ry, double width, double height) {
+        add(STROKE_RECT, part, state(paint, 1.0), rx, ry, width, height, null);
+    }
+
+    // Drawn through the SpriteCache at x, y
+    void sprite(int part, Sprite image, double sx, double sy) {
+        add(SPRITE, part, 0, sx, sy, 0, 0, image);
+    }
+
+    // Draw everything added since the last flush and empty the queue
+    // The fill and stroke paints are left changed, global alpha is back at 1.
+    void flush(GraphicsContext gc) {
+        countUnsorted();
+        Arrays.sort(keys, 0, count);
+        Paint fill = null;
+        Paint stroke = null;
+        double alpha = 1.0;
+        int changes = 0;
+        for (int k = 0; k < count; k++) {
+            int i = (int) (keys[k] & ORDER_MASK);
+            int s = state[i];
+            double a = stateAlpha[s];
+            if (a != alpha) {
+                gc.setGlobalAlpha(a);
+                alpha = a;
+                changes++;
+            }
+            switch (shape[i]) {
+                case FILL_OVAL:
+                case FILL_RECT:
+                    if (statePaint[s] != fill) {
+                        fill = statePaint[s];
+                        gc.setFill(fill);
+                        changes++;
+                    }
+                    if (shape[i] == FILL_OVAL) {
+                        gc.fillOval(x[i], y[i], w[i], h[i]);
+                    } else {
+                        gc.fillRect(x[i], y[i], w[i], h[i]);
+                    }
+                    break;
+                case STROKE_OVAL:
+                case STROKE_RECT:
+                    if (statePaint[s] != stroke) {
+                        stroke = statePaint[s];
+                        gc.setStroke(stroke);
+                        changes++;
+                    }
+                    if (shape[i] == STROKE_OVAL) {
+                        gc.strokeOval(x[i], y[i], w[i], h[i]);
+                    } else {
+                        gc.strokeRect(x[i], y[i], w[i], h[i]);
+                    }
+                    break;
+                case SPRITE:
+                    sprites.draw(gc, sprite[i], x[i], y[i]);
+                    fill = null;  // A vector painter sets its own fill
+                    sprite[i] = null;
+                    break;
+            }
+        }
+        if (alpha != 1.0) {
+            gc.setGlobalAlpha(1.0);
+            changes++;
+        }
+        draws = count;
+        stateChanges = changes;
+        count = 0;
+    }
+
+    int getDraws() {
+        return draws;
+    }
+
+    int getStateChanges() {
+        return stateChanges;
+    }
+
+    int getUnsortedStateChanges() {
+        return unsortedStateChanges;
+    }
+
+    private void add(int itemShape, int part, int itemState, double ix, double iy, double width, double height, Sprite image) {
+        if (count == keys.length) {
+            grow();
+        }
+        int i = count++;
+        keys[i] = (long) (layer + part) << 48 | (long) itemState << ORDER_BITS | i;
+        shape[i] = itemShape;
+        state[i] = itemState;
+        x[i] = ix;
+        y[i] = iy;
+        w[i] = width;
+        h[i] = height;
+        sprite[i] = image;
+    }
+
+    private int state(Paint paint, double alpha) {
+        if (lastState >= 0 && statePaint[lastState] == paint && stateAlpha[lastState] == alpha) {
+            return lastState;
+        }
+        for (int s = 0; s < stateCount; s++) {
+            if (statePaint[s] == paint && stateAlpha[s] == alpha) {
+                return lastState = s;
+            }
+        }
+        if (stateCount == statePaint.length) {
+            statePaint = Arrays.copyOf(statePaint, stateCount * 2);
+            stateAlpha = Arrays.copyOf(stateAlpha, stateCount * 2);
+        }
+        statePaint[stateCount] = paint;
+        stateAlpha[stateCount] = alpha;
+        return lastState = stateCount++;
+    }
+
+    // State changes of the same items drawn in submission order, for the F3 overlay
+    private void countUnsorted() {
+        int changes = 0;
+        Paint fill = null;
+        Paint stroke = null;
+        double alpha = 1.0;
+        for (int i = 0; i < count; i++) {
+            int s = state[i];
+            if (stateAlpha[s] != alpha) {
+                alpha = stateAlpha[s];
+                changes++;
+            }
+            if (shape[i] == FILL_OVAL || shape[i] == FILL_RECT) {
+                if (statePaint[s] != fill) {
+                    fill = statePaint[s];
+                    changes++;
+                }
+            } else if (shape[i] != SPRITE && statePaint[s] != stroke) {
+                stroke = statePaint[s];
+                changes++;
+            }
+        }
+        unsortedStateChanges = changes;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        shape = Arrays.copyOf(shape, capacity);
+        state = Arrays.copyOf(state, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        w = Arrays.copyOf(w, capacity);
+        h = Arrays.copyOf(h, capacity);
+        sprite = Arrays.copyOf(sprite, capacity);
+    }
+}
@@ -0,0 +1,128 @@
+package application;
+
+import java.util.Arrays;
+
+// Render snapshot: a copy of everything needed to draw one frame
+// Filled by the simulation and then only read by the renderer, so the FX thread can
+// draw it while the simulation thread is already working on the next tick.
+// Moving sprites carry their position of the previous tick too; interpolate() blends
+// the two into x, y so motion stays smooth when frames fall between ticks.
+final class RenderSnapshot {
+    // Sprite kinds
+    static final int PLAYER = 0;
+    static final int WINGMAN = 1;
+    static final int ENEMY = 2;
+    static final int METEOR = 3;
+    static final int POWER_UP = 4;
+    static final int BULLET = 5;
+    static final int ENEMY_BULLET = 6;
+    static final int BOSS_BULLET = 7;
+    static final int EXPLOSION = 8;
+    static final int BOSS = 9;
+
+    // Sprites, in drawing order
+    int spriteCount;
+    int[] kind = new int[256];
+    double[] x = new double[256];  // Drawn position, set by interpolate()
+    double[] y = new double[256];
+    double[] fromX = new double[256];  // Position after the previous tick
+    double[] fromY = new double[256];
+    double[] toX = new double[256];    // Position after the latest tick
+    double[] toY = new double[256];
+    int[] variant = new int[256];  // Kind specific: type ordinal, animation frame or flags
+    double[] value = new double[256];  // Kind specific: health
+    int[] detail = new int[256];  // Offset of the sprite's extra values in details
+    double[] details = new double[1024];
+    int detailCount;
+
+    // Background stars
+    int starCount;
+    double[] starX = new double[128];
+    double[] starY = new double[128];
+    double[] starBrightness = new double[128];
+
+    // Game state for the HUD and the end screen
+    long time;  // Simulated time of the snapshot
+    double alpha;    // Fraction of the next tick already due when published
+    long published;  // Real time of publishing
+    long inputTime;  // Oldest key event first applied in this snapshot's ticks, 0 if none
+    int score;
+    int playerHealth;
+    boolean tutorialMode;
+    long tutorialElapsed;
+    long gameElapsed;
+    boolean bossSpawned;
+    boolean bossActive;
+    int bossHealth;
+    boolean finished;
+    boolean victory;
+
+    void clear() {
+        spriteCount = 0;
+        detailCount = 0;
+        starCount = 0;
+    }
+
+    // Sprite that did not move since the previous tick
+    int addSprite(int spriteKind, double spriteX, double spriteY, int spriteVariant, double spriteValue) {
+        return addSprite(spriteKind, spriteX, spriteY, spriteX, spriteY, spriteVariant, spriteValue);
+    }
+
+    int addSprite(int spriteKind, double previousX, double previousY, double spriteX, double spriteY,
+            int spriteVariant, double spriteValue) {
+        if (spriteCount == kind.length) {
+            int capacity = kind.length * 2;
+            kind = Arrays.copyOf(kind, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            fromX = Arrays.copyOf(fromX, capacity);
+            fromY = Arrays.copyOf(fromY, capacity);
+            toX = Arrays.copyOf(toX, capacity);
+            toY = Arrays.copyOf(toY, capacity);
+            variant = Arrays.copyOf(variant, capacity);
+            value = Arrays.copyOf(value, capacity);
+            detail = Arrays.copyOf(detail, capacity);
+        }
+        int i = spriteCount++;
+        kind[i] = spriteKind;
+        fromX[i] = previousX;
+        fromY[i] = previousY;
+        toX[i] = spriteX;
+        toY[i] = spriteY;
+        x[i] = spriteX;
+        y[i] = spriteY;
+        variant[i] = spriteVariant;
+        value[i] = spriteValue;
+        detail[i] = detailCount;
+        return i;
+    }
+
+    // Place every sprite between its previous and latest position, alpha in [0, 1]
+    // Only the reader calls this, on the buffer it currently owns.
+    void interpolate(double alpha) {
+        for (int i = 0; i < spriteCount; i++) {
+            x[i] = fromX[i] + (toX[i] - fromX[i]) * alpha;
+            y[i] = fromY[i] + (toY[i] - fromY[i]) * alpha;
+        }
+    }
+
+    void addDetail(double detailValue) {
+        if (detailCount == details.length) {
+            details = Arrays.copyOf(details, details.length * 2);
+        }
+        details[detailCount++] = detailValue;
+    }
+
+    void addStar(double starXValue, double starYValue, double brightness) {
+        if (starCount == starX.length) {
+            int capacity = starX.length * 2;
+            starX = Arrays.copyOf(starX, capacity);
+            starY = Arrays.copyOf(starY, capacity);
+            starBrightness = Arrays.copyOf(starBrightness, capacity);
+        }
+        starX[starCount] = starXValue;
+        starY[starCount] = starYValue;
+        starBrightness[starCount] = brightness;
+        starCount++;
+    }
+}
@@ -0,0 +1,201 @@
+package application;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Rewind: the last seconds of a level kept as backward deltas in a fixed byte ring
+// After every tick the world is saved (GameWorld.save) and XORed against the frame of the
+// tick before; the mostly-zero result is run-length encoded into the ring. Only the newest
+// frame is kept whole. Stepping back XORs the newest delta into it, which gives the frame
+// before, and restores the world from that. When the ring is full the oldest deltas are
+// overwritten, so memory stays at the budget however long the level runs.
+// The two frames are scratch arrays of at most a quarter of the ring each, which keeps
+// the worst-case delta of two frames inside the ring. A world too large to save in that
+// drops the history, rewind starts over from the next tick that fits.
+// Stepping back reuses the world's objects (see GameWorld.restore), it allocates only
+// when the restored world holds more entities than any state since the level started.
+// Delta layout: varint length of the older frame, then pairs of (zero run, literal count)
+// varints, each followed by its literal bytes, over the longer of the two frames.
+final class RewindBuffer {
+    private static final int MAX_FRAMES = 10 * FixedStep.TICKS_PER_SECOND;
+
+    private final byte[] ring;
+    private final int mask;
+    private long end;  // Bytes written so far, the ring holds [start of the oldest delta, end)
+    private final long[] deltaStart = new long[MAX_FRAMES];
+    private int oldest;  // Index in deltaStart of the oldest delta
+    private int deltas;
+    private long readPos;  // Decoding position
+
+    // Newest frame and the one being built, swapped after each record(), with a buffer over
+    // each that is replaced only when its array grows
+    private final int maxFrame;
+    private byte[] frame;
+    private ByteBuffer frameBuffer;
+    private int frameLength = -1;  // -1 until the first frame
+    private byte[] next;
+    private ByteBuffer nextBuffer;
+
+    // budgetBytes is rounded up to a power of two
+    RewindBuffer(int budgetBytes) {
+        ring = new byte[Integer.highestOneBit(budgetBytes - 1) << 1];
+        mask = ring.length - 1;
+        maxFrame = ring.length / 4;
+        frame = new byte[Math.min(16 * 1024, maxFrame)];
+        frameBuffer = ByteBuffer.wrap(frame);
+        next = new byte[frame.length];
+        nextBuffer = ByteBuffer.wrap(next);
+    }
+
+    // After a tick, on the thread that runs the world
+    void record(GameWorld world) {
+        int length = save(world);
+        if (length < 0) {
+            clear();
+            return;
+        }
+        if (frameLength >= 0) {
+            makeRoom(2 * Math.max(length, frameLength) + 16);  // Worst case of the encoding
+            if (deltas == MAX_FRAMES) {
+                drop();
+            }
+            deltaStart[(oldest + deltas) % MAX_FRAMES] = end;
+            deltas++;
+            encode(length);
+        }
+        byte[] swap = frame;
+        frame = next;
+        next = swap;
+        ByteBuffer swapBuffer = frameBuffer;
+        frameBuffer = nextBuffer;
+        nextBuffer = swapBuffer;
+        frameLength = length;
+    }
+
+    // Go back one tick, false when nothing older is left
+    boolean stepBack(GameWorld world) {
+        if (deltas == 0) {
+            return false;
+        }
+        deltas--;
+        long pos = deltaStart[(oldest + deltas) % MAX_FRAMES];
+        end = pos;
+        decode(pos);
+        frameBuffer.clear().limit(frameLength);
+        world.restore(frameBuffer);
+        return true;
+    }
+
+    // Forget everything, e.g. after loading a save
+    void clear() {
+        deltas = 0;
+        frameLength = -1;
+    }
+
+    // Ticks that can be rewound
+    int frames() {
+        return deltas;
+    }
+
+    int bytesUsed() {
+        return deltas == 0 ? 0 : (int) (end - deltaStart[oldest]);
+    }
+
+    // Length of the frame saved into next, -1 when it is over maxFrame
+    private int save(GameWorld world) {
+        while (true) {
+            nextBuffer.clear();
+            try {
+                world.save(nextBuffer);
+                return nextBuffer.position();
+            } catch (BufferOverflowException e) {
+                if (next.length == maxFrame) {
+                    return -1;
+                }
+                setNext(new byte[Math.min(next.length * 2, maxFrame)]);
+            }
+        }
+    }
+
+    private void setFrame(byte[] array) {
+        frame = array;
+        frameBuffer = ByteBuffer.wrap(array);
+    }
+
+    private void setNext(byte[] array) {
+        next = array;
+        nextBuffer = ByteBuffer.wrap(array);
+    }
+
+    private void makeRoom(int bytes) {
+        while (deltas > 0 && ring.length - (end - deltaStart[oldest]) < bytes) {
+            drop();
+        }
+    }
+
+    private void drop() {
+        oldest = (oldest + 1) % MAX_FRAMES;
+        deltas--;
+    }
+
+    // next XOR frame, so that applying it to next gives frame back
+    private void encode(int length) {
+        int span = Math.max(length, frameLength);
+        if (frame.length < span) setFrame(Arrays.copyOf(frame, span));
+        if (next.length < span) setNext(Arrays.copyOf(next, span));
+        Arrays.fill(frame, frameLength, span, (byte) 0);
+        Arrays.fill(next, length, span, (byte) 0);
+
+        putVarint(frameLength);
+        int i = 0;
+        while (i < span) {
+            int zeros = i;
+            while (i < span && frame[i] == next[i]) i++;
+            int literal = i;
+            while (i < span && frame[i] != next[i]) i++;
+            putVarint(literal - zeros);
+            putVarint(i - literal);
+            for (int k = literal; k < i; k++) {
+                ring[(int) end++ & mask] = (byte) (frame[k] ^ next[k]);
+            }
+        }
+    }
+
+    // Apply the delta at pos to the newest frame
+    private void decode(long pos) {
+        readPos = pos;
+        int older = getVarint();
+        int span = Math.max(older, frameLength);
+        if (frame.length < span) setFrame(Arrays.copyOf(frame, span));
+        Arrays.fill(frame, frameLength, span, (byte) 0);
+        int i = 0;
+        while (i < span) {
+            i += getVarint();
+            int literal = getVarint();
+            for (int k = 0; k < literal; k++, i++) {
+                frame[i] ^= ring[(int) readPos++ & mask];
+            }
+        }
+        frameLength = older;
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7f) != 0) {
+            ring[(int) end++ & mask] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        ring[(int) end++ & mask] = (byte) value;
+    }
+
+    private int getVarint() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = ring[(int) readPos++ & mask];
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
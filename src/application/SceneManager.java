@@ -0,0 +1,67 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+// Scene lifecycle: the level on screen and the one Scene and Canvas every level draws on
+// Before anything else is shown the running level exits: its loop and simulation thread
+// stop, the run is saved and its key and close handlers come off the shared Scene, so
+// nothing left in the FX runtime reaches the old GameWorld and its entity lists.
+// Only called on the JavaFX Application Thread.
+final class SceneManager {
+    private static final AtomicInteger liveLoops = new AtomicInteger();  // Timers and simulation threads running
+    private static Scene levelScene;  // Created with the first level
+    private static Canvas canvas;
+    private static LevelScene current;
+
+    private SceneManager() {
+    }
+
+    // Exit the running level before building the next one, so two worlds never coexist
+    static void exitLevel(Stage stage) {
+        if (current == null) {
+            return;
+        }
+        LevelScene level = current;
+        current = null;
+        stage.setOnCloseRequest(null);
+        level.exit();
+    }
+
+    static void enterLevel(Stage stage, LevelScene level) {
+        exitLevel(stage);
+        if (levelScene == null) {
+            canvas = new Canvas(GameWorld.WIDTH, GameWorld.HEIGHT);
+            levelScene = new Scene(new Pane(canvas), GameWorld.WIDTH, GameWorld.HEIGHT);
+        }
+        current = level;
+        stage.setOnCloseRequest(e -> exitLevel(stage));  // Keep the run when the window is closed
+        level.enter(levelScene, canvas);
+        if (stage.getScene() != levelScene) {
+            stage.setScene(levelScene);
+        }
+    }
+
+    // Menus are cheap and keep their own Scene
+    static void showMenu(Stage stage, Scene menu) {
+        exitLevel(stage);
+        stage.setScene(menu);
+    }
+
+    static void loopStarted() {
+        liveLoops.incrementAndGet();
+    }
+
+    static void loopStopped() {
+        liveLoops.decrementAndGet();
+    }
+
+    // One per level on screen, two with the simulation thread; more means a level leaked
+    static int liveLoops() {
+        return liveLoops.get();
+    }
+}
@@ -0,0 +1,68 @@
+package application;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleConsumer;
+
+import javafx.application.Platform;
+
+// Simulation thread
+// Runs the fixed-step world update off the JavaFX Application Thread, so a heavy
+// collision tick no longer delays input handling or canvas drawing. After every batch
+// of ticks a render snapshot is published for the FX thread, together with the
+// interpolation alpha at that moment.
+// A tick that throws stops the thread; the failure is handed to the FX thread, which
+// leaves the level instead of drawing the last snapshot forever.
+final class SimulationThread extends Thread {
+    private final GameClock clock;
+    private final Runnable tick;
+    private final DoubleConsumer publish;
+    private final LoopStats simStats;
+    private final Runnable failed;  // Run on the FX thread after a tick threw
+    private volatile boolean running = true;
+
+    SimulationThread(GameClock clock, Runnable tick, DoubleConsumer publish, LoopStats simStats, Runnable failed) {
+        super("simulation");
+        this.clock = clock;
+        this.tick = tick;
+        this.publish = publish;
+        this.simStats = simStats;
+        this.failed = failed;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        FixedStep step = new FixedStep(clock);
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                int steps = step.advance(now);
+                if (steps > 0) {
+                    for (int i = 0; i < steps; i++) {
+                        step.nextStep();
+                        tick.run();
+                    }
+                    publish.accept(step.alpha());
+                    simStats.record(now, steps, System.nanoTime() - now, step.takeDroppedNanos());
+                }
+                LockSupport.parkNanos(step.nanosUntilNextStep());
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Simulation thread stopped: " + e);
+            e.printStackTrace();
+            running = false;
+            Platform.runLater(failed);
+        }
+    }
+
+    // Returns once the current tick is done, the world is then free for the caller
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(this);
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package application;
+
+import java.util.Arrays;
+
+// Uniform grid broadphase over the playfield
+// Items are inserted with their bounding box into every cell the box overlaps; two items
+// can only touch when they share a cell, so nothing far apart is ever compared.
+// Buckets are int chains (head per cell, next per entry), so a rebuild allocates nothing.
+// Positions outside the playfield are clamped into the border cells.
+final class SpatialHash {
+    static final int CELL_SIZE = 64;
+    private static final int COLUMNS = (GameWorld.WIDTH + CELL_SIZE - 1) / CELL_SIZE;
+    private static final int ROWS = (GameWorld.HEIGHT + CELL_SIZE - 1) / CELL_SIZE;
+
+    private final int[] head = new int[COLUMNS * ROWS];
+    private int[] entryItem = new int[512];
+    private int[] entryNext = new int[512];
+    private int entryCount;
+
+    SpatialHash() {
+        Arrays.fill(head, -1);
+    }
+
+    void clear() {
+        Arrays.fill(head, -1);
+        entryCount = 0;
+    }
+
+    void insert(int item, double minX, double minY, double maxX, double maxY) {
+        int firstColumn = column(minX), lastColumn = column(maxX);
+        int lastRow = row(maxY);
+        for (int r = row(minY); r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                if (entryCount == entryItem.length) {
+                    entryItem = Arrays.copyOf(entryItem, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+                int cell = r * COLUMNS + c;
+                entryItem[entryCount] = item;
+                entryNext[entryCount] = head[cell];
+                head[cell] = entryCount++;
+            }
+        }
+    }
+
+    // Walking the buckets: for (e = first(cell); e >= 0; e = next(e)) item(e)
+    int cellCount() { return head.length; }
+    int first(int cell) { return head[cell]; }
+    int next(int entry) { return entryNext[entry]; }
+    int item(int entry) { return entryItem[entry]; }
+
+    int cellAt(double x, double y) {
+        return row(y) * COLUMNS + column(x);
+    }
+
+    private static int column(double x) {
+        return Math.min(Math.max((int) Math.floor(x / CELL_SIZE), 0), COLUMNS - 1);
+    }
+
+    private static int row(double y) {
+        return Math.min(Math.max((int) Math.floor(y / CELL_SIZE), 0), ROWS - 1);
+    }
+}
@@ -0,0 +1,128 @@
+package application;
+
+import java.util.Arrays;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import javafx.stage.Screen;
+
+// Pre-rasterized sprites
+// Ships, bosses and meteors are built from many fillPolygon/fillOval calls, and under the
+// software pipeline run.sh forces (PRISM_ORDER=sw) every one of them is rasterized on the
+// CPU each frame. SHARED draws each Sprite once into an image, at the screen's output
+// scale, and from then on blits it with a single drawImage. VECTOR paints the shapes
+// directly, for renderers off the FX thread such as the Preloader's background game.
+// Images are indexed by Sprite.id, so a draw is an array read and no allocation.
+final class SpriteCache {
+    static final SpriteCache SHARED = new SpriteCache(true);
+    static final SpriteCache VECTOR = new SpriteCache(false);
+
+    private final boolean rasterize;
+    private Image[] images = new Image[32];
+    private double scale;  // Output scale, read when the first image is made
+    private int imageCount;
+    private long pixels;   // Physical pixels of all images
+    private long hits;
+    private long misses;
+
+    private SpriteCache(boolean rasterize) {
+        this.rasterize = rasterize;
+    }
+
+    // x, y is the sprite position its painter was written for
+    void draw(GraphicsContext gc, Sprite sprite, double x, double y) {
+        if (!rasterize) {
+            sprite.painter.paint(gc, x, y);
+            return;
+        }
+        Image image = sprite.id < images.length ? images[sprite.id] : null;
+        if (image == null) {
+            misses++;
+            image = add(sprite);
+        } else {
+            hits++;
+        }
+        gc.drawImage(image, x + sprite.left, y + sprite.top, sprite.width, sprite.height);
+    }
+
+    // Rasterize ahead of time, so the first frame with a sprite does not pay for it
+    void prepare(Sprite... sprites) {
+        if (!rasterize) {
+            return;
+        }
+        for (Sprite sprite : sprites) {
+            if (sprite.id >= images.length || images[sprite.id] == null) {
+                add(sprite);
+            }
+        }
+    }
+
+    private Image add(Sprite sprite) {
+        if (scale == 0) {
+            scale = Screen.getPrimary().getOutputScaleX();
+        }
+        Canvas canvas = new Canvas(sprite.width, sprite.height);
+        sprite.painter.paint(canvas.getGraphicsContext2D(), -sprite.left, -sprite.top);
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        params.setTransform(Transform.scale(scale, scale));
+        Image image = canvas.snapshot(params, null);
+
+        if (sprite.id >= images.length) {
+            images = Arrays.copyOf(images, Math.max(images.length * 2, sprite.id + 1));
+        }
+        images[sprite.id] = image;
+        imageCount++;
+        pixels += (long) Math.ceil(sprite.width * scale) * (long) Math.ceil(sprite.height * scale);
+        return image;
+    }
+
+    int getImageCount() {
+        return imageCount;
+    }
+
+    // 4 bytes per pixel
+    long getBytes() {
+        return pixels * 4;
+    }
+
+    double getHitRate() {
+        long draws = hits + misses;
+        return draws == 0 ? 1.0 : (double) hits / draws;
+    }
+}
+
+// A vector shape that SpriteCache may turn into an image
+// left, top, width and height bound what the painter draws around the sprite position,
+// with one pixel of margin for the antialiased edges.
+final class Sprite {
+    interface Painter {
+        void paint(GraphicsContext gc, double x, double y);
+    }
+
+    private static int nextId;
+
+    final int id;
+    final double left;
+    final double top;
+    final double width;
+    final double height;
+    final Painter painter;
+
+    Sprite(double left, double top, double width, double height, Painter painter) {
+        this.id = nextId();
+        this.left = left - 1;
+        this.top = top - 1;
+        this.width = width + 2;
+        this.height = height + 2;
+        this.painter = painter;
+    }
+
+    private static synchronized int nextId() {
+        return nextId++;
+    }
+}
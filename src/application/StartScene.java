@@ -113,8 +113,7 @@ public class StartScene {
             String password = pwField.getText();
             
             if (UserData.validateUser(username, password)) {
-                Main main = new Main();
-                main.startLevelSelect(primaryStage, username);
+                Main.startLevelSelect(primaryStage, username);
             } else {
                 messageLabel.setText("Invalid username or password!");
                 messageLabel.setTextFill(Color.RED);
@@ -0,0 +1,263 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Hierarchical timing wheel, counted in simulation ticks
+// Levels, enemies and the boss register timed events (spawns, shots, pattern changes)
+// here instead of each of them comparing now - last > interval every tick. An event sits
+// in one of 64 slots of the level that covers its distance, and moves down a level when
+// the ticks get close, so advance() only touches the events that are due this tick plus
+// an occasional cascade, however many entities are waiting.
+// Events due on the same tick run in the order they were scheduled.
+final class TimingWheel {
+    // Something to do when an event is due
+    interface Task {
+        void run();
+    }
+
+    // Saving: what the owner of a pending event calls it, so a restore can find it again
+    interface TaskKeys {
+        int key(int handle);
+    }
+
+    // Restoring: register the saved event again, delay ticks from the restored tick
+    interface Rescheduler {
+        void reschedule(int key, long delay, long period);
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;  // 64^4 ticks, about 77 hours at 60 ticks per second
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    private long tick;  // Last tick that was run
+
+    // Slot lists, slot s of level l at l * SLOTS + s
+    private final int[] head = new int[LEVELS * SLOTS];
+    private final int[] tail = new int[LEVELS * SLOTS];
+    private int overflowHead = -1, overflowTail = -1;  // Beyond the top level
+
+    // Events
+    private int capacity;
+    private long[] due = new long[0];
+    private long[] period = new long[0];  // 0 for a one-shot event
+    private Task[] task = new Task[0];     // null once cancelled
+    private int[] generation = new int[0];
+    private int[] next = new int[0];
+    private int free = -1;
+    private int pending;
+
+    TimingWheel() {
+        Arrays.fill(head, -1);
+        Arrays.fill(tail, -1);
+        grow(64);
+    }
+
+    // Ticks until more than the given time has passed, like the old now - last > interval test
+    static long ticks(long nanos) {
+        return nanos / FixedStep.STEP_NANOS + 1;
+    }
+
+    // Run once, delay ticks from now (at least one); returns a handle for cancel()
+    int after(long delay, Task action) {
+        return schedule(delay, 0, action);
+    }
+
+    // Run first after firstDelay ticks and then every period ticks until cancelled
+    int every(long firstDelay, long period, Task action) {
+        return schedule(firstDelay, Math.max(1, period), action);
+    }
+
+    // Stale handles, of events that already ran or were cancelled, are ignored
+    void cancel(int handle) {
+        int e = handle & INDEX_MASK;
+        if (e < capacity && task[e] != null && generation[e] == handle >>> INDEX_BITS) {
+            task[e] = null;
+            generation[e] = (generation[e] + 1) & (-1 >>> INDEX_BITS);
+            pending--;
+        }
+    }
+
+    // Events scheduled and not yet run or cancelled
+    int pending() {
+        return pending;
+    }
+
+    // Action of a pending event, null for a stale handle
+    Task task(int handle) {
+        int e = handle & INDEX_MASK;
+        return e < capacity && generation[e] == handle >>> INDEX_BITS ? task[e] : null;
+    }
+
+    // Pending events in the order they will run: events due on the same tick always
+    // share one slot list, so scheduling them again in list order keeps their order
+    void save(ByteBuffer out, TaskKeys keys) {
+        out.putLong(tick);
+        out.putInt(pending);
+        for (int list = 0; list < head.length; list++) {
+            saveList(out, keys, head[list]);
+        }
+        saveList(out, keys, overflowHead);
+    }
+
+    private void saveList(ByteBuffer out, TaskKeys keys, int e) {
+        for (; e >= 0; e = next[e]) {
+            if (task[e] != null) {
+                out.putLong(due[e] - tick);
+                out.putLong(period[e]);
+                out.putInt(keys.key(e | generation[e] << INDEX_BITS));
+            }
+        }
+    }
+
+    // Drop every event and go on from the saved tick, the owners schedule their events again
+    void restore(ByteBuffer in, Rescheduler owners) {
+        Arrays.fill(head, -1);
+        Arrays.fill(tail, -1);
+        overflowHead = overflowTail = -1;
+        free = -1;
+        for (int e = capacity - 1; e >= 0; e--) {
+            if (task[e] != null) {
+                task[e] = null;
+                generation[e] = (generation[e] + 1) & (-1 >>> INDEX_BITS);
+            }
+            next[e] = free;
+            free = e;
+        }
+        pending = 0;
+        tick = in.getLong();
+        for (int n = in.getInt(); n > 0; n--) {
+            long delay = in.getLong();
+            long every = in.getLong();
+            owners.reschedule(in.getInt(), delay, every);
+        }
+    }
+
+    // Move on one tick and run what is due
+    void advance() {
+        tick++;
+        // Bring the events of the next block down, top level first
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                if (level == LEVELS - 1) {
+                    cascadeOverflow();
+                }
+                cascade(level, (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+            }
+        }
+
+        int slot = (int) tick & (SLOTS - 1);
+        int e = head[slot];
+        head[slot] = tail[slot] = -1;
+        while (e >= 0) {
+            int following = next[e];
+            Task action = task[e];
+            if (action == null) {
+                release(e);  // Cancelled
+            } else if (period[e] > 0) {
+                due[e] += period[e];
+                insert(e);
+                action.run();
+            } else {
+                task[e] = null;
+                generation[e] = (generation[e] + 1) & (-1 >>> INDEX_BITS);
+                pending--;
+                release(e);
+                action.run();
+            }
+            e = following;
+        }
+    }
+
+    private int schedule(long delay, long every, Task action) {
+        if (free < 0) {
+            grow(capacity * 2);
+        }
+        int e = free;
+        free = next[e];
+        due[e] = tick + Math.max(1, delay);
+        period[e] = every;
+        task[e] = action;
+        pending++;
+        insert(e);
+        return e | generation[e] << INDEX_BITS;
+    }
+
+    // The level is the lowest one whose block of ticks holds both now and the due tick
+    private void insert(int e) {
+        long when = due[e];
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if (when >>> shift == tick >>> shift) {
+                append(level * SLOTS + ((int) (when >>> (SLOT_BITS * level)) & (SLOTS - 1)), e);
+                return;
+            }
+        }
+        next[e] = -1;
+        if (overflowTail < 0) {
+            overflowHead = e;
+        } else {
+            next[overflowTail] = e;
+        }
+        overflowTail = e;
+    }
+
+    private void append(int list, int e) {
+        next[e] = -1;
+        if (tail[list] < 0) {
+            head[list] = e;
+        } else {
+            next[tail[list]] = e;
+        }
+        tail[list] = e;
+    }
+
+    private void cascade(int level, int slot) {
+        int list = level * SLOTS + slot;
+        int e = head[list];
+        head[list] = tail[list] = -1;
+        while (e >= 0) {
+            int following = next[e];
+            if (task[e] == null) {
+                release(e);
+            } else {
+                insert(e);
+            }
+            e = following;
+        }
+    }
+
+    private void cascadeOverflow() {
+        int e = overflowHead;
+        overflowHead = overflowTail = -1;
+        while (e >= 0) {
+            int following = next[e];
+            if (task[e] == null) {
+                release(e);
+            } else {
+                insert(e);
+            }
+            e = following;
+        }
+    }
+
+    private void release(int e) {
+        next[e] = free;
+        free = e;
+    }
+
+    private void grow(int newCapacity) {
+        due = Arrays.copyOf(due, newCapacity);
+        period = Arrays.copyOf(period, newCapacity);
+        task = Arrays.copyOf(task, newCapacity);
+        generation = Arrays.copyOf(generation, newCapacity);
+        next = Arrays.copyOf(next, newCapacity);
+        for (int e = newCapacity - 1; e >= capacity; e--) {
+            next[e] = free;
+            free = e;
+        }
+        capacity = newCapacity;
+    }
+}
@@ -0,0 +1,67 @@
+package application;
+
+// Sine and cosine from a lookup table with linear interpolation
+// The table is sized for an accuracy budget: it gets the smallest power-of-two number of
+// steps whose interpolation error, at most (2*pi/steps)^2/8, stays within the budget.
+// A lookup is a multiply, a mask and one interpolation instead of a Math.sin call.
+// SHARED keeps errors far below a pixel for every radius and speed in the game.
+final class TrigTable {
+    static final TrigTable SHARED = new TrigTable(1e-6);
+
+    private static final double TWO_PI = Math.PI * 2;
+
+    private final double[] sin;  // steps + 1 entries, the last one repeats the first
+    private final int mask;
+    private final int quarter;   // Steps in a quarter turn, cos(a) = sin(a + pi/2)
+    private final double scale;  // Steps per radian
+
+    TrigTable(double maxError) {
+        int steps = 16;
+        while (Math.pow(TWO_PI / steps, 2) / 8 > maxError) {
+            steps *= 2;
+        }
+        sin = new double[steps + 1];
+        for (int i = 0; i <= steps; i++) {
+            sin[i] = Math.sin(TWO_PI * i / steps);
+        }
+        mask = steps - 1;
+        quarter = steps / 4;
+        scale = steps / TWO_PI;
+    }
+
+    double sin(double radians) {
+        return lookup(radians * scale);
+    }
+
+    double cos(double radians) {
+        return lookup(radians * scale + quarter);
+    }
+
+    // t in table steps, any sign and size
+    private double lookup(double t) {
+        double floor = Math.floor(t);
+        int i = (int) ((long) floor & mask);
+        double a = sin[i];
+        return a + (sin[i + 1] - a) * (t - floor);
+    }
+}
+
+// Constant rotation step, applied to a vector with two multiplies per axis instead of
+// recomputing sin and cos of the growing angle every tick
+final class Rotation {
+    final double cos;
+    final double sin;
+
+    Rotation(double radians) {
+        cos = Math.cos(radians);
+        sin = Math.sin(radians);
+    }
+
+    double rotateX(double x, double y) {
+        return x * cos - y * sin;
+    }
+
+    double rotateY(double x, double y) {
+        return x * sin + y * cos;
+    }
+}
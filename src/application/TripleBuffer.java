@@ -0,0 +1,43 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Lock-free triple buffer between one writer and one reader thread
+// The writer fills back() and publishes it; the reader always gets the newest
+// published buffer from front(). Neither side ever waits for the other.
+final class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;  // Set when the middle buffer holds unread data
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;   // Only touched by the writer
+    private int front = 2;  // Only touched by the reader
+
+    TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    // Buffer the writer may fill
+    @SuppressWarnings("unchecked")
+    T back() {
+        return (T) buffers[back];
+    }
+
+    // Hand the filled back buffer to the reader and take the old middle one
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // Newest published buffer, stays valid until the next call
+    @SuppressWarnings("unchecked")
+    T front() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+}
@@ -0,0 +1,174 @@
+package application;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Per-tick checksum of the world state, for checking that two runs behave the same
+// After each tick GameWorld folds every simulated value into one hash per part of the
+// world: positions, health, the score and the random generators. Stars and explosions
+// only decorate and stay out. Recording writes one line per tick to a file, with the keys
+// the world got on that tick; verifying feeds those keys back in place of the keyboard,
+// so a played run can be compared, and reports the first tick and part that differ.
+// Start with -Dspaceshooter.checksumRecord=<file> or -Dspaceshooter.checksumVerify=<file>
+// and the same -Dspaceshooter.seed for both runs. Rewind and F9 are off in the recorded
+// world, the key lines cannot bring them back. A verify run that found a difference
+// exits with status 1.
+// Only the first world of the program run is recorded or verified, so replaying or
+// switching levels does not overwrite a recording; the file is closed when that level is left.
+final class WorldChecksum {
+    enum Part { PLAYER, WINGMEN, ENEMIES, METEORS, POWER_UPS, PROJECTILES, BOSS, STATE }
+
+    private static final Part[] PARTS = Part.values();
+    private static final long START = 0xcbf29ce484222325L;
+    private static final AtomicBoolean opened = new AtomicBoolean();
+
+    private final long[] hash = new long[PARTS.length];
+    private int current;
+    private long tick;
+
+    private BufferedWriter out;      // Recording
+    private BufferedReader expected; // Verifying
+    private String[] recorded;       // Verifying: the line of the current tick, read for its keys
+    private int keys;                // Recording: HeldKeys.mask() of the current tick
+    private static volatile boolean diverged;  // Of the one world verified per program run
+
+    private WorldChecksum(BufferedWriter out, BufferedReader expected) {
+        this.out = out;
+        this.expected = expected;
+    }
+
+    // Whether this program run records or verifies, also after the first world took the file
+    static boolean isRequested() {
+        return System.getProperty("spaceshooter.checksumRecord") != null
+                || System.getProperty("spaceshooter.checksumVerify") != null;
+    }
+
+    // null when neither property is set, the file cannot be opened or an earlier world has it
+    static WorldChecksum fromProperties() {
+        String record = System.getProperty("spaceshooter.checksumRecord");
+        String verify = System.getProperty("spaceshooter.checksumVerify");
+        if ((record == null && verify == null) || !opened.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            if (verify != null) {
+                return new WorldChecksum(null, new BufferedReader(new FileReader(verify)));
+            }
+            if (record != null) {
+                return new WorldChecksum(new BufferedWriter(new FileWriter(record)), null);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Before the tick's input is applied: keep the keys for the line, or when verifying
+    // replace them with the recorded ones; no keys once the recorded run has ended
+    void input(HeldKeys held) {
+        try {
+            if (out != null) {
+                keys = held.mask();
+            } else if (expected != null) {
+                String line = expected.readLine();
+                recorded = line != null ? line.split(" ") : null;
+                held.setMask(recorded != null ? Integer.parseInt(recorded[1], 16) : 0);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    void begin(long tickNumber) {
+        tick = tickNumber;
+        for (int p = 0; p < hash.length; p++) {
+            hash[p] = START;
+        }
+    }
+
+    // Following values belong to this part
+    void part(Part p) {
+        current = p.ordinal();
+    }
+
+    void add(long value) {
+        long h = (hash[current] ^ value) * 0x9e3779b97f4a7c15L;
+        hash[current] = h ^ (h >>> 32);
+    }
+
+    void add(double value) {
+        add(Double.doubleToLongBits(value));
+    }
+
+    void add(boolean value) {
+        add(value ? 1 : 0);
+    }
+
+    // All parts of the tick folded into one value
+    long combined() {
+        long h = START;
+        for (long part : hash) {
+            h = (h ^ part) * 0x9e3779b97f4a7c15L;
+            h ^= h >>> 32;
+        }
+        return h;
+    }
+
+    // Line per tick: tick, keys, combined hash, then one hash per part
+    void end() {
+        try {
+            if (out != null) {
+                StringBuilder line = new StringBuilder().append(tick).append(' ').append(Integer.toHexString(keys))
+                        .append(' ').append(Long.toHexString(combined()));
+                for (long part : hash) {
+                    line.append(' ').append(Long.toHexString(part));
+                }
+                out.write(line.toString());
+                out.newLine();
+            } else if (expected != null && !diverged) {
+                verify(recorded);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    private void verify(String[] fields) {
+        if (fields == null) {
+            return;  // Recorded run ended earlier
+        }
+        if (Long.parseLong(fields[0]) != tick) {
+            report("tick " + tick + " has no recorded line, found tick " + fields[0]);
+            return;
+        }
+        for (int p = 0; p < PARTS.length; p++) {
+            if (Long.parseUnsignedLong(fields[3 + p], 16) != hash[p]) {
+                report("first difference at tick " + tick + " in " + PARTS[p]);
+                return;
+            }
+        }
+    }
+
+    private void report(String message) {
+        diverged = true;
+        System.err.println("World checksum: " + message);
+    }
+
+    // Read when the program ends, a verify run that found a difference exits with status 1
+    static boolean hasDiverged() {
+        return diverged;
+    }
+
+    void close() {
+        try {
+            if (out != null) out.close();
+            if (expected != null) expected.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        out = null;
+        expected = null;
+    }
+}
@@ -0,0 +1,166 @@
+package application;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+// Draws a render snapshot of the GameWorld
+// Only reads the snapshot and the (constant) level texts, never the live world,
+// so it is safe to run while the simulation thread updates the world.
+// Stars and game objects go through a RenderQueue, the HUD texts are drawn directly.
+class WorldRenderer {
+    private static final int WIDTH = GameWorld.WIDTH;
+    private static final int HEIGHT = GameWorld.HEIGHT;
+    private static final double STAR_ALPHA_STEPS = 32;  // Star brightness levels, so stars share paint states
+    private static final int[] KIND_LAYER = new int[10];
+    static {
+        // Drawing order of the sprite kinds as GameWorld.writeSnapshot lists them, the stars are layer 0
+        int[] order = {
+            RenderSnapshot.POWER_UP, RenderSnapshot.METEOR, RenderSnapshot.ENEMY, RenderSnapshot.BOSS,
+            RenderSnapshot.WINGMAN, RenderSnapshot.PLAYER, RenderSnapshot.BULLET, RenderSnapshot.ENEMY_BULLET,
+            RenderSnapshot.BOSS_BULLET, RenderSnapshot.EXPLOSION
+        };
+        for (int k = 0; k < order.length; k++) {
+            KIND_LAYER[order[k]] = k + 1;
+        }
+    }
+
+    private final LevelRules rules;
+    private final SpriteCache sprites;
+    private final RenderQueue queue;
+
+    WorldRenderer(LevelRules rules) {
+        this(rules, SpriteCache.VECTOR);
+    }
+
+    WorldRenderer(LevelRules rules, SpriteCache sprites) {
+        this.rules = rules;
+        this.sprites = sprites;
+        this.queue = new RenderQueue(sprites);
+    }
+
+    // Rasterize every ship, boss and meteor before the level starts, on the FX thread
+    void prepareSprites() {
+        sprites.prepare(Player.BODY, WingmanShip.BODY);
+        sprites.prepare(Enemy.SPRITES);
+        sprites.prepare(Boss.SPRITES);
+        sprites.prepare(Meteor.ROCKS);
+        for (int d = 1; d < Meteor.SPOT_SPRITES.length; d++) {
+            sprites.prepare(Meteor.SPOT_SPRITES[d]);
+        }
+    }
+
+    void render(GraphicsContext gc, RenderSnapshot s) {
+        // Clear background
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, WIDTH, HEIGHT);
+
+        // Render background stars
+        queue.setLayer(0);
+        for (int i = 0; i < s.starCount; i++) {
+            double alpha = Math.round(s.starBrightness[i] * STAR_ALPHA_STEPS) / STAR_ALPHA_STEPS;
+            queue.fillOval(0, Color.WHITE, alpha, s.starX[i], s.starY[i], 2, 2);
+        }
+
+        if (s.finished) {
+            queue.flush(gc);
+            renderEndScreen(gc, s);
+            return;
+        }
+
+        // Game objects
+        for (int i = 0; i < s.spriteCount; i++) {
+            queue.setLayer(KIND_LAYER[s.kind[i]]);
+            switch (s.kind[i]) {
+                case RenderSnapshot.PLAYER: Player.draw(queue, s, i); break;
+                case RenderSnapshot.WINGMAN: WingmanShip.draw(queue, s, i); break;
+                case RenderSnapshot.ENEMY: Enemy.draw(queue, s, i); break;
+                case RenderSnapshot.METEOR: Meteor.draw(queue, s, i); break;
+                case RenderSnapshot.POWER_UP: PowerUp.draw(queue, s, i); break;
+                case RenderSnapshot.BULLET: Bullet.draw(queue, s, i); break;
+                case RenderSnapshot.ENEMY_BULLET: EnemyBullet.draw(queue, s, i); break;
+                case RenderSnapshot.BOSS_BULLET: BossBullet.draw(queue, s, i); break;
+                case RenderSnapshot.EXPLOSION: Explosion.draw(queue, s, i); break;
+                case RenderSnapshot.BOSS: Boss.draw(queue, s, i); break;
+            }
+        }
+        queue.flush(gc);
+
+        renderHud(gc, s);
+    }
+
+    RenderQueue getQueue() {
+        return queue;
+    }
+
+    private void renderHud(GraphicsContext gc, RenderSnapshot s) {
+        // Health display
+        gc.setFill(Color.RED);
+        for (int i = 0; i < s.playerHealth; i++) {
+            gc.fillOval(10 + i * 25, 20, 20, 20);
+        }
+
+        gc.setFill(Color.WHITE);
+        gc.setFont(Font.font("Arial", 20));
+
+        if (s.tutorialMode) {
+            // Tutorial screen
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setFill(Color.RED);
+            gc.setFont(Font.font("Arial", 24));
+            gc.fillText(rules.getTitle(), WIDTH/2, 50);
+            gc.setFill(Color.WHITE);
+            gc.setFont(Font.font("Arial", 20));
+            gc.fillText("Move: ← → ↑ ↓", WIDTH/2, 100);
+            gc.fillText("Fire: Space", WIDTH/2, 130);
+            gc.fillText("Return: ESC", WIDTH/2, 160);
+
+            gc.setFont(Font.font("Arial", 18));
+            double y = 200;
+            gc.fillText("Win condition: " + rules.getWinCondition(), WIDTH/2, y);
+            if (rules.getTip() != null) {
+                y += 30;
+                gc.fillText("Tip: " + rules.getTip(), WIDTH/2, y);
+            }
+            gc.fillText("Tutorial time remaining: " + (5 - s.tutorialElapsed / 1_000_000_000L) + "s", WIDTH/2, y + 30);
+            gc.setTextAlign(TextAlignment.LEFT);
+            gc.setFont(Font.font("Arial", 20));
+        } else {
+            double timeLeft = Math.max(0, 60.0 - s.gameElapsed / 1_000_000_000.0);
+            if (rules.getBossType() == null) {
+                // Game count-down
+                gc.fillText(String.format("Time left: %.1f", timeLeft), 10, 80);
+            } else if (!s.bossSpawned) {
+                gc.fillText(String.format("Boss appears in: %.1f", timeLeft), 10, 80);
+            } else if (s.bossActive) {
+                gc.fillText("Boss Health: " + s.bossHealth, 10, 80);
+            }
+        }
+
+        // Score display in top right
+        gc.fillText("Score: " + s.score, WIDTH - 150, 32);
+    }
+
+    private void renderEndScreen(GraphicsContext gc, RenderSnapshot s) {
+        gc.setFill(Color.GOLD);
+        gc.setFont(Font.font("Arial", 36));
+
+        if (s.victory) {
+            gc.fillText("Victory", WIDTH/2 - 60, HEIGHT/2 - 100);
+        } else {
+            gc.setFill(Color.BLUE);
+            gc.fillText("Failed", WIDTH/2 - 58, HEIGHT/2 - 100);
+        }
+        gc.setFill(Color.RED);
+        gc.setFont(Font.font("Arial", 24));
+        gc.fillText("Score: " + s.score, WIDTH/2 - 58, HEIGHT/2 - 40);
+        gc.setFill(Color.WHITE);
+        gc.setFont(Font.font("Arial", 20));
+        if (s.victory && rules.getNextLevel() > 0) {
+            gc.fillText("Space - Next Level", WIDTH/2 - 100, HEIGHT/2 + 20);
+        }
+        gc.fillText("Enter - Replay Level", WIDTH/2 - 100, HEIGHT/2 + 50);
+        gc.fillText("ESC - Return to Menu", WIDTH/2 - 100, HEIGHT/2 + 80);
+    }
+}
@@ -0,0 +1,173 @@
+package application;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Binary save slot of one level for one player
+// GameWorld.save() fills a pre-sized direct buffer on the thread that runs the world,
+// between two ticks, and an AsynchronousFileChannel writes it out in the background, so
+// an autosave costs the simulation only the copy. The file is written under a temporary
+// name and moved over the old save once complete, a crash never leaves half a save.
+// While a write is still running the next save is skipped.
+// Layout: magic, format version, level number, payload length, then what GameWorld.save()
+// wrote. Files of another version or level, or that do not decode, are refused.
+final class WorldSave {
+    private static final int MAGIC = 0x53535356;  // "SSSV"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final Path file;
+    private final Path temp;
+    private final int level;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);  // Grows when a world does not fit
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    WorldSave(String playerName, int level) {
+        this.file = Paths.get("save-" + fileName(playerName) + "-level" + level + ".bin");
+        this.temp = Paths.get(file + ".tmp");
+        this.level = level;
+    }
+
+    // Login names may hold any character: letters, digits, '-' and '_' are kept, every other
+    // UTF-8 byte becomes %XX, so the name never leaves the working directory or breaks the path
+    static String fileName(String playerName) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : playerName.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                name.append(c);
+            } else {
+                name.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xf, 16)));
+            }
+        }
+        return name.toString();
+    }
+
+    // Only on the thread that runs the world; false when skipped
+    boolean save(GameWorld world) {
+        if (!writing.compareAndSet(false, true)) {
+            return false;
+        }
+        ByteBuffer out = buffer;
+        while (true) {
+            try {
+                out.clear();
+                out.putInt(MAGIC);
+                out.putInt(VERSION);
+                out.putInt(level);
+                out.putInt(0);  // Payload length, filled in below
+                world.save(out);
+                break;
+            } catch (BufferOverflowException e) {
+                out = buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            }
+        }
+        out.putInt(12, out.position() - HEADER_BYTES);
+        out.flip();
+        ByteBuffer data = out;
+
+        try {
+            AsynchronousFileChannel channel = AsynchronousFileChannel.open(temp,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            channel.write(data, 0, channel, new CompletionHandler<Integer, AsynchronousFileChannel>() {
+                @Override
+                public void completed(Integer written, AsynchronousFileChannel channel) {
+                    if (data.hasRemaining()) {
+                        channel.write(data, data.position(), channel, this);  // Short write, go on
+                        return;
+                    }
+                    try {
+                        channel.close();
+                        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    writing.set(false);
+                }
+
+                @Override
+                public void failed(Throwable e, AsynchronousFileChannel channel) {
+                    e.printStackTrace();
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                    }
+                    writing.set(false);
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+            writing.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    // Wait for a running write, before the program may exit
+    void finish() {
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (writing.get() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    boolean exists() {
+        return Files.exists(file);
+    }
+
+    // After finish(), when the run it holds is over
+    void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Only on the thread that runs the world; the world is untouched when the file is refused
+    boolean load(GameWorld world) {
+        if (!exists()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = ByteBuffer.allocateDirect((int) channel.size());
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // Read the whole file
+            }
+            in.flip();
+            if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+                throw new IOException("not a save file");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("save format " + version + ", expected " + VERSION);
+            }
+            if (in.getInt() != level) {
+                throw new IOException("save of another level");
+            }
+            if (in.getInt() != in.remaining()) {
+                throw new IOException("truncated save");
+            }
+            // A damaged body can fail anywhere in restore(), with any runtime exception;
+            // decode it into a scratch world first so the live one is never half restored
+            ByteBuffer body = in.duplicate();
+            world.scratch().restore(body);
+            if (body.hasRemaining()) {
+                throw new IOException("damaged save");
+            }
+            world.restore(in);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Cannot load " + file + ": " + e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+@echo off
+REM =============================================================================
+REM Checks: compile the game with the classes in test\ and run every *Check class
+REM =============================================================================
+
+REM Uses the same PATH_TO_FX as run.bat
+if "%PATH_TO_FX%"=="" (
+    echo [ERROR] PATH_TO_FX environment variable is not set.
+    echo Please set the environment variable pointing to your JavaFX 'lib' folder.
+    exit /b 1
+)
+
+echo Cleaning previous build...
+if exist bin (
+    rmdir /s /q bin
+)
+mkdir bin
+
+echo Compiling source code and checks...
+javac --module-path "%PATH_TO_FX%" --add-modules javafx.controls,javafx.media -d bin src\application\*.java test\application\*.java
+
+if %errorlevel% neq 0 (
+    echo [ERROR] Compilation failed!
+    exit /b 1
+)
+
+REM Each check prints its result and exits with status 1 on a failure
+set failed=0
+for %%f in (test\application\*Check.java) do (
+    java --module-path "%PATH_TO_FX%" --add-modules javafx.controls,javafx.media -cp bin application.%%~nf
+    if errorlevel 1 set failed=1
+)
+
+if %failed% neq 0 (
+    echo [ERROR] Some checks failed.
+    exit /b 1
+)
+echo All checks passed.
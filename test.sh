@@ -0,0 +1,43 @@
+#!/bin/bash
+
+# =============================================================================
+# Checks: compile the game with the classes in test/ and run every *Check class
+# =============================================================================
+
+# Uses the same PATH_TO_FX as run.sh
+if [ -z "$PATH_TO_FX" ]; then
+    echo "Error: PATH_TO_FX environment variable is not set."
+    echo "Please run: export PATH_TO_FX=/path/to/your/javafx-sdk/lib"
+    exit 1
+fi
+
+echo "Cleaning previous build..."
+rm -rf bin
+mkdir bin
+
+echo "Compiling source code and checks..."
+javac --module-path "$PATH_TO_FX" \
+      --add-modules javafx.controls,javafx.media \
+      -d bin \
+      src/application/*.java test/application/*.java
+
+if [ $? -ne 0 ]; then
+    echo "Compilation failed! Please check your JavaFX path and code."
+    exit 1
+fi
+
+# Each check prints its result and exits with status 1 on a failure
+failed=0
+for check in test/application/*Check.java; do
+    name=$(basename "$check" .java)
+    java --module-path "$PATH_TO_FX" \
+         --add-modules javafx.controls,javafx.media \
+         -cp bin \
+         application.$name || failed=1
+done
+
+if [ $failed -ne 0 ]; then
+    echo "Some checks failed."
+    exit 1
+fi
+echo "All checks passed."
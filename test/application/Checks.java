@@ -0,0 +1,30 @@
+package application;
+
+// Assertions for the main-driven checks in this folder, run by test.sh and test.bat
+// Each check is a class with a main() that ends with done(); a failure is printed and
+// makes the process exit with status 1, so a script can stop on it.
+final class Checks {
+    private static int failures;
+
+    private Checks() {
+    }
+
+    static void that(boolean condition, String what) {
+        if (!condition) {
+            failures++;
+            System.out.println("  FAIL " + what);
+        }
+    }
+
+    static void equal(long expected, long actual, String what) {
+        that(expected == actual, what + ": expected " + expected + ", got " + actual);
+    }
+
+    static void done(String name) {
+        if (failures > 0) {
+            System.out.println(name + ": " + failures + " failed");
+            System.exit(1);
+        }
+        System.out.println(name + ": ok");
+    }
+}
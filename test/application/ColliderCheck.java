@@ -0,0 +1,153 @@
+package application;
+
+// Collider kernels against plain geometry on the same shapes: overlaps() for every pair
+// of circles, boxes and compounds, and the swept segmentHits() against points sampled
+// along the segment. Cases closer to an edge than the arithmetic or the sampling can
+// tell apart are skipped.
+public class ColliderCheck {
+    private static final int CASES = 20000;
+    private static final int SAMPLES = 1000;
+    private static final double EXACT = 1e-9;
+
+    public static void main(String[] args) {
+        fixedCases();
+        randomOverlaps();
+        randomSegments();
+        Checks.done("ColliderCheck");
+    }
+
+    private static void fixedCases() {
+        Collider a = new Collider(), b = new Collider();
+        Checks.that(Collider.overlaps(a.circle(0, 0, 5), b.circle(9, 0, 5)), "circles 9 apart with radius 5 touch");
+        Checks.that(!Collider.overlaps(a.circle(0, 0, 5), b.circle(10, 0, 5)), "circles only meeting in a point do not");
+        Checks.that(Collider.overlaps(a.box(0, 0, 10, 10), b.box(10, 10, 20, 20)), "boxes sharing a corner touch");
+        Checks.that(!Collider.overlaps(a.circle(-4, -4, 5), b.box(0, 0, 10, 10)), "circle short of the box corner");
+        Checks.that(Collider.overlaps(a.circle(-3, -3, 5), b.box(0, 0, 10, 10)), "circle over the box corner");
+        Checks.that(Collider.overlaps(b.box(10, 10, 20, 20), a.box(0, 0, 10, 10)), "boxes sharing a corner touch either way");
+        Checks.that(!Collider.overlaps(a.circle(-5, 5, 5), b.box(0, 0, 10, 10)), "circle only meeting the box edge");
+        Checks.that(Collider.segmentHits(50, -20, 50, 120, 0, b.box(0, 0, 100, 100)), "segment through a box");
+        Checks.that(Collider.segmentHits(0, -20, 0, 120, 0, b.box(0, 0, 100, 100)), "vertical segment along the box edge");
+        Checks.that(Collider.segmentHits(-10, 10, 10, -10, 0, b.box(0, 0, 100, 100)), "diagonal segment meeting the box corner");
+        Checks.that(Collider.segmentHits(-50, 50, -10, 50, 10, b.box(0, 0, 100, 100)), "radius reaches the box edge");
+        Checks.that(!Collider.segmentHits(-50, 50, -11, 50, 10, b.box(0, 0, 100, 100)), "radius short of the box edge");
+        Checks.that(Collider.segmentHits(-20, 0, 20, 0, 0, b.circle(0, 3, 4)), "segment passing through a circle");
+        Checks.that(!Collider.segmentHits(-20, 0, -10, 0, 0, b.circle(0, 0, 4)), "segment ending before a circle");
+        Checks.that(!Collider.segmentHits(-20, 0, -4, 0, 0, b.circle(0, 0, 4)), "segment ending on the circle edge");
+    }
+
+    private static void randomOverlaps() {
+        GameRandom random = new GameRandom(5);
+        Collider a = new Collider(3), b = new Collider(3);
+        int checked = 0;
+        for (int i = 0; i < CASES; i++) {
+            double[][] shapeA = shape(random), shapeB = shape(random);
+            build(a, shapeA);
+            build(b, shapeB);
+            double margin = Double.NEGATIVE_INFINITY;
+            for (double[] p : shapeA) {
+                for (double[] q : shapeB) {
+                    margin = Math.max(margin, overlap(p, q));
+                }
+            }
+            if (Math.abs(margin) < EXACT) {
+                continue;
+            }
+            checked++;
+            if (Collider.overlaps(a, b) != margin > 0 || Collider.overlaps(b, a) != margin > 0) {
+                Checks.that(false, "overlaps case " + i + ": expected " + (margin > 0));
+                return;
+            }
+        }
+        Checks.that(checked > CASES * 9 / 10, "overlap cases decided");
+    }
+
+    private static void randomSegments() {
+        GameRandom random = new GameRandom(6);
+        Collider c = new Collider(3);
+        int checked = 0;
+        for (int i = 0; i < CASES; i++) {
+            double[][] target = shape(random);
+            build(c, target);
+            double x0 = random.nextDouble() * 100, y0 = random.nextDouble() * 100;
+            // Some segments are points or axis-aligned, they take the dx == 0 and dy == 0 branches
+            int kind = random.nextInt(4);
+            double x1 = kind == 0 || kind == 1 ? x0 : x0 - 30 + random.nextDouble() * 60;
+            double y1 = kind == 0 || kind == 2 ? y0 : y0 - 30 + random.nextDouble() * 60;
+            double r = random.nextInt(3) == 0 ? 0 : random.nextDouble() * 4;
+            double margin = Double.NEGATIVE_INFINITY;
+            for (int s = 0; s <= SAMPLES; s++) {
+                double t = (double) s / SAMPLES;
+                double[] point = {0, x0 + (x1 - x0) * t, y0 + (y1 - y0) * t, r};
+                for (double[] part : target) {
+                    margin = Math.max(margin, swept(point, part));
+                }
+            }
+            // A margin changes by at most the distance between samples
+            if (Math.abs(margin) < EXACT + Math.hypot(x1 - x0, y1 - y0) / SAMPLES) {
+                continue;
+            }
+            checked++;
+            if (Collider.segmentHits(x0, y0, x1, y1, r, c) != margin > 0) {
+                Checks.that(false, "segmentHits case " + i + ": expected " + (margin > 0));
+                return;
+            }
+        }
+        Checks.that(checked > CASES * 9 / 10, "segment cases decided");
+    }
+
+    // One to three parts around (50, 50): {0, x, y, radius} or {1, left, top, right, bottom}
+    private static double[][] shape(GameRandom random) {
+        double[][] parts = new double[random.nextInt(3) == 0 ? 2 + random.nextInt(2) : 1][];
+        for (int i = 0; i < parts.length; i++) {
+            double x = 20 + random.nextDouble() * 60, y = 20 + random.nextDouble() * 60;
+            parts[i] = random.nextInt(2) == 0
+                    ? new double[] {0, x, y, 1 + random.nextDouble() * 20}
+                    : new double[] {1, x, y, x + 1 + random.nextDouble() * 30, y + 1 + random.nextDouble() * 30};
+        }
+        return parts;
+    }
+
+    private static void build(Collider c, double[][] parts) {
+        if (parts.length == 1) {
+            simple(c, parts[0]);
+            return;
+        }
+        for (int i = 0; i < parts.length; i++) {
+            simple(c.part(i), parts[i]);
+        }
+        c.compound(parts.length);
+    }
+
+    private static void simple(Collider c, double[] part) {
+        if (part[0] == 0) {
+            c.circle(part[1], part[2], part[3]);
+        } else {
+            c.box(part[1], part[2], part[3], part[4]);
+        }
+    }
+
+    // Above 0 when the parts overlap: circles strictly, boxes with their edges
+    private static double overlap(double[] p, double[] q) {
+        if (p[0] == 0 && q[0] == 0) {
+            return p[3] + q[3] - Math.hypot(p[1] - q[1], p[2] - q[2]);
+        }
+        if (p[0] == 1 && q[0] == 1) {
+            return Math.min(Math.min(p[3] - q[1], q[3] - p[1]), Math.min(p[4] - q[2], q[4] - p[2]));
+        }
+        double[] circle = p[0] == 0 ? p : q, box = p[0] == 0 ? q : p;
+        double dx = Math.max(Math.max(box[1] - circle[1], circle[1] - box[3]), 0);
+        double dy = Math.max(Math.max(box[2] - circle[2], circle[2] - box[4]), 0);
+        return circle[3] - Math.hypot(dx, dy);
+    }
+
+    // A projectile of radius r at one point: circles grow by r, boxes grow by r with
+    // square corners, as segmentHits() documents
+    private static double swept(double[] point, double[] part) {
+        if (part[0] == 0) {
+            return overlap(point, part);
+        }
+        double r = point[3];
+        double[] grown = {1, part[1] - r, part[2] - r, part[3] + r, part[4] + r};
+        return overlap(new double[] {1, point[1], point[2], point[1], point[2]}, grown);
+    }
+}
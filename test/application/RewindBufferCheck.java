@@ -0,0 +1,87 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// RewindBuffer: every step back restores the recorded world byte for byte, the history
+// stays within the ring and the 10 s cap, and frames too large for the ring drop it
+public class RewindBufferCheck {
+    private static final int TICKS = 1500;
+
+    public static void main(String[] args) {
+        roundTrip(LevelResources.REWIND_BUDGET);
+        roundTrip(64 * 1024);  // Old deltas overwritten long before the frame cap
+        oversizedFrames();
+        Checks.done("RewindBufferCheck");
+    }
+
+    private static void roundTrip(int budget) {
+        GameWorld world = new GameWorld(new Level4Rules(), 0, 42, null);
+        RewindBuffer rewind = new RewindBuffer(budget);
+        HeldKeys keys = new HeldKeys();
+        List<byte[]> history = new ArrayList<>();
+        for (int tick = 0; tick < TICKS && !world.isFinished(); tick++) {
+            step(world, keys, tick);
+            rewind.record(world);
+            history.add(save(world));
+            Checks.that(rewind.bytesUsed() <= budget, "budget " + budget + " kept at tick " + tick);
+        }
+        int frames = rewind.frames();
+        Checks.that(frames > 0, "budget " + budget + " keeps frames");
+        Checks.that(frames <= 10 * FixedStep.TICKS_PER_SECOND, "at most 10 s of frames");
+
+        // Newest frame is history[last], the k-th step back gives history[last - k]
+        int last = history.size() - 1;
+        for (int k = 1; k <= frames; k++) {
+            Checks.that(rewind.stepBack(world), "step back " + k);
+            if (!ByteBuffer.wrap(save(world)).equals(ByteBuffer.wrap(history.get(last - k)))) {
+                Checks.that(false, "budget " + budget + ": world after " + k + " steps back differs from tick " + (last - k));
+                return;
+            }
+        }
+        Checks.that(!rewind.stepBack(world), "nothing older than the oldest frame");
+
+        // Playing on from the rewound state records again, the rewound frame stays the base
+        for (int tick = 0; tick < 10; tick++) {
+            step(world, keys, tick);
+            rewind.record(world);
+        }
+        Checks.equal(10, rewind.frames(), "frames recorded after rewinding");
+        rewind.clear();
+        Checks.equal(0, rewind.frames(), "frames after clear");
+    }
+
+    // A ring of 16 KB allows 4 KB frames, less than any world saves
+    private static void oversizedFrames() {
+        GameWorld world = new GameWorld(new Level4Rules(), 0, 42, null);
+        RewindBuffer rewind = new RewindBuffer(16 * 1024);
+        HeldKeys keys = new HeldKeys();
+        for (int tick = 0; tick < 300; tick++) {
+            step(world, keys, tick);
+            rewind.record(world);
+        }
+        Checks.equal(0, rewind.frames(), "frames kept when the world does not fit");
+        Checks.that(!rewind.stepBack(world), "no step back without frames");
+    }
+
+    // Sweep left and right, firing in bursts, so bullets, hits and explosions all change
+    private static void step(GameWorld world, HeldKeys keys, int tick) {
+        keys.startTick();
+        keys.apply(InputRing.RIGHT, tick / 60 % 2 == 0);
+        keys.apply(InputRing.LEFT, tick / 60 % 2 != 0);
+        keys.apply(InputRing.FIRE, tick % 90 < 60);
+        world.getClock().advance();
+        world.applyInput(keys, 0);
+        world.update();
+    }
+
+    private static byte[] save(GameWorld world) {
+        ByteBuffer out = ByteBuffer.allocate(1 << 20);
+        world.save(out);
+        byte[] bytes = new byte[out.position()];
+        out.flip();
+        out.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,85 @@
+package application;
+
+// SpatialHash: every pair of overlapping boxes shares a cell, each item sits in exactly
+// the cells its clamped box covers, once per cell, and clear() empties the grid
+public class SpatialHashCheck {
+    private static final int ITEMS = 700;  // Past the 512 entries the hash starts with
+
+    public static void main(String[] args) {
+        GameRandom random = new GameRandom(11);
+        SpatialHash hash = new SpatialHash();
+        for (int round = 0; round < 3; round++) {
+            double[][] boxes = new double[ITEMS][];
+            hash.clear();
+            for (int i = 0; i < ITEMS; i++) {
+                // Up to a boss in size, some of them partly or wholly off the playfield
+                double x = -100 + random.nextDouble() * (GameWorld.WIDTH + 200);
+                double y = -100 + random.nextDouble() * (GameWorld.HEIGHT + 200);
+                double w = random.nextInt(10) == 0 ? 200 : random.nextDouble() * 40;
+                double h = random.nextInt(10) == 0 ? 150 : random.nextDouble() * 40;
+                boxes[i] = new double[] {x, y, x + w, y + h};
+                hash.insert(i, x, y, x + w, y + h);
+            }
+            checkCells(hash, boxes, round);
+            checkPairs(hash, boxes, round);
+        }
+        hash.clear();
+        for (int cell = 0; cell < hash.cellCount(); cell++) {
+            Checks.that(hash.first(cell) < 0, "cell " + cell + " empty after clear");
+        }
+        Checks.done("SpatialHashCheck");
+    }
+
+    // Each item is in a cell exactly when the cell overlaps its clamped box
+    private static void checkCells(SpatialHash hash, double[][] boxes, int round) {
+        for (int cell = 0; cell < hash.cellCount(); cell++) {
+            int[] seen = new int[boxes.length];
+            for (int e = hash.first(cell); e >= 0; e = hash.next(e)) {
+                seen[hash.item(e)]++;
+            }
+            for (int i = 0; i < boxes.length; i++) {
+                int expected = covers(hash, boxes[i], cell) ? 1 : 0;
+                if (seen[i] != expected) {
+                    Checks.that(false, "round " + round + ": item " + i + " is " + seen[i] + " times in cell " + cell
+                            + ", expected " + expected);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean covers(SpatialHash hash, double[] box, int cell) {
+        int first = hash.cellAt(box[0], box[1]), last = hash.cellAt(box[2], box[3]);
+        int columns = hash.cellAt(GameWorld.WIDTH, 0) + 1;
+        int column = cell % columns, row = cell / columns;
+        return column >= first % columns && column <= last % columns && row >= first / columns && row <= last / columns;
+    }
+
+    // The broadphase must never lose a pair that touches
+    private static void checkPairs(SpatialHash hash, double[][] boxes, int round) {
+        int missed = 0;
+        for (int i = 0; i < boxes.length; i++) {
+            for (int j = i + 1; j < boxes.length; j++) {
+                double[] a = boxes[i], b = boxes[j];
+                if (a[0] <= b[2] && b[0] <= a[2] && a[1] <= b[3] && b[1] <= a[3] && !shareCell(hash, i, j)) {
+                    missed++;
+                }
+            }
+        }
+        Checks.equal(0, missed, "round " + round + ": overlapping pairs without a shared cell");
+    }
+
+    private static boolean shareCell(SpatialHash hash, int a, int b) {
+        for (int cell = 0; cell < hash.cellCount(); cell++) {
+            boolean hasA = false, hasB = false;
+            for (int e = hash.first(cell); e >= 0; e = hash.next(e)) {
+                hasA |= hash.item(e) == a;
+                hasB |= hash.item(e) == b;
+            }
+            if (hasA && hasB) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
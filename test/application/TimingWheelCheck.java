@@ -0,0 +1,163 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// TimingWheel: due ticks across all wheel levels, same-tick order, periods, cancel, and
+// a save/restore in the middle that runs on exactly like the original
+public class TimingWheelCheck {
+    // Delays on both sides of every level boundary and beyond the top level
+    private static final long[] DELAYS = {1, 2, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262143, 262144, 262145, 16777216, 16777300};
+
+    private static long now;  // Tick the wheel last ran
+
+    // Logs tick and id when it runs
+    private static final class Event implements TimingWheel.Task {
+        final int id;
+        final List<long[]> log;
+
+        Event(int id, List<long[]> log) {
+            this.id = id;
+            this.log = log;
+        }
+
+        @Override
+        public void run() {
+            log.add(new long[] {now, id});
+        }
+    }
+
+    public static void main(String[] args) {
+        dueTicks();
+        sameTickOrder();
+        periodsAndCancel();
+        saveAndRestore();
+        Checks.done("TimingWheelCheck");
+    }
+
+    private static void dueTicks() {
+        TimingWheel wheel = new TimingWheel();
+        List<long[]> log = new ArrayList<>();
+        now = 0;
+        // Start off a block boundary, so the cascades are not all aligned with the delays
+        for (int i = 0; i < 1000; i++) {
+            advance(wheel);
+        }
+        long start = now;
+        for (int i = 0; i < DELAYS.length; i++) {
+            wheel.after(DELAYS[i], new Event(i, log));
+        }
+        Checks.equal(DELAYS.length, wheel.pending(), "pending after scheduling");
+        while (log.size() < DELAYS.length && now < start + DELAYS[DELAYS.length - 1] + 10) {
+            advance(wheel);
+        }
+        Checks.equal(DELAYS.length, log.size(), "events run");
+        for (long[] run : log) {
+            Checks.equal(start + DELAYS[(int) run[1]], run[0], "due tick of delay " + DELAYS[(int) run[1]]);
+        }
+        Checks.equal(0, wheel.pending(), "pending after running");
+    }
+
+    // Events due on one tick run in scheduling order, whatever level they waited on
+    private static void sameTickOrder() {
+        TimingWheel wheel = new TimingWheel();
+        List<long[]> log = new ArrayList<>();
+        now = 0;
+        long target = 5000;
+        for (int i = 0; i < 20; i++) {
+            wheel.after(target - now, new Event(i, log));
+            for (int k = 0; k < 200; k++) {
+                advance(wheel);
+            }
+        }
+        while (now < target) {
+            advance(wheel);
+        }
+        Checks.equal(20, log.size(), "events on the target tick");
+        for (int i = 0; i < log.size(); i++) {
+            Checks.equal(target, log.get(i)[0], "tick of event " + i);
+            Checks.equal(i, log.get(i)[1], "position of event " + i);
+        }
+    }
+
+    private static void periodsAndCancel() {
+        TimingWheel wheel = new TimingWheel();
+        List<long[]> log = new ArrayList<>();
+        now = 0;
+        int periodic = wheel.every(3, 100, new Event(0, log));
+        int cancelled = wheel.after(50, new Event(1, log));
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);  // Stale, ignored
+        Checks.that(wheel.task(cancelled) == null, "cancelled handle has no task");
+        for (int i = 0; i < 350; i++) {
+            advance(wheel);
+        }
+        Checks.equal(4, log.size(), "periodic runs");
+        for (int i = 0; i < log.size(); i++) {
+            Checks.equal(3 + 100 * i, log.get(i)[0], "periodic run " + i);
+            Checks.equal(0, log.get(i)[1], "only the periodic event runs");
+        }
+        wheel.cancel(periodic);
+        Checks.equal(0, wheel.pending(), "pending after cancelling the periodic event");
+    }
+
+    private static void saveAndRestore() {
+        GameRandom random = new GameRandom(7);
+        List<long[]> log = new ArrayList<>();
+        TimingWheel original = new TimingWheel();
+        List<Event> events = new ArrayList<>();
+        now = 0;
+        for (int tick = 0; tick < 3000; tick++) {
+            if (random.nextInt(4) == 0) {
+                Event event = new Event(events.size(), log);
+                events.add(event);
+                long delay = 1 + random.nextInt(5000);
+                if (random.nextInt(3) == 0) {
+                    original.every(delay, 1 + random.nextInt(300), event);
+                } else {
+                    original.after(delay, event);
+                }
+            }
+            advance(original);
+        }
+
+        ByteBuffer saved = ByteBuffer.allocate(1 << 20);
+        original.save(saved, handle -> ((Event) original.task(handle)).id);
+        saved.flip();
+        TimingWheel restored = new TimingWheel();
+        restored.restore(saved, (key, delay, period) -> {
+            if (period > 0) {
+                restored.every(delay, period, events.get(key));
+            } else {
+                restored.after(delay, events.get(key));
+            }
+        });
+        Checks.equal(original.pending(), restored.pending(), "pending after restore");
+
+        long saveTick = now;
+        log.clear();
+        for (int tick = 0; tick < 6000; tick++) {
+            advance(original);
+        }
+        List<long[]> expected = new ArrayList<>(log);
+        log.clear();
+        now = saveTick;
+        for (int tick = 0; tick < 6000; tick++) {
+            advance(restored);
+        }
+        Checks.equal(expected.size(), log.size(), "runs after restore");
+        for (int i = 0; i < Math.min(expected.size(), log.size()); i++) {
+            if (expected.get(i)[0] != log.get(i)[0] || expected.get(i)[1] != log.get(i)[1]) {
+                Checks.that(false, "run " + i + " after restore: expected event " + expected.get(i)[1] + " on tick "
+                        + expected.get(i)[0] + ", got event " + log.get(i)[1] + " on tick " + log.get(i)[0]);
+                break;
+            }
+        }
+    }
+
+    private static void advance(TimingWheel wheel) {
+        now++;
+        wheel.advance();
+    }
+}
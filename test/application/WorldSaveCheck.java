@@ -0,0 +1,138 @@
+package application;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// WorldSave: a file round trip gives the same world, files of another version or level,
+// truncated or damaged ones are refused and leave the world untouched, and player names
+// never leave the working directory
+public class WorldSaveCheck {
+    private static final String PLAYER = "check/..";  // Escaped in the file name
+    private static final int LEVEL = 4;
+
+    public static void main(String[] args) throws IOException {
+        try {
+            roundTrip();
+            refused();
+            damaged();
+            fileNames();
+        } finally {
+            new WorldSave(PLAYER, LEVEL).delete();
+        }
+        Checks.done("WorldSaveCheck");
+    }
+
+    private static void roundTrip() {
+        GameWorld world = played(1000);
+        WorldSave slot = new WorldSave(PLAYER, LEVEL);
+        Checks.that(slot.save(world), "save started");
+        slot.finish();
+        Checks.that(slot.exists(), "save file written");
+        GameWorld loaded = new GameWorld(new Level4Rules(), 0, 9, null);
+        Checks.that(slot.load(loaded), "save loaded");
+        Checks.that(save(world).equals(save(loaded)), "loaded world equals the saved one");
+    }
+
+    private static void refused() throws IOException {
+        Path file = file();
+        byte[] good = Files.readAllBytes(file);
+        // Header: magic, version, level, payload length
+        expectRefused(with(good, 4, WorldSave.VERSION + 1), "another version");
+        expectRefused(with(good, 8, LEVEL + 1), "another level");
+        expectRefused(with(good, 0, 0), "another magic");
+        expectRefused(Arrays.copyOf(good, good.length - 5), "truncated body");
+        expectRefused(Arrays.copyOf(good, 10), "truncated header");
+        byte[] longer = Arrays.copyOf(good, good.length + 8);
+        ByteBuffer.wrap(longer).putInt(12, good.length + 8 - 16);
+        expectRefused(longer, "bytes after the world");
+        Files.write(file, good);
+    }
+
+    // Every refused file must leave the world as it was, whatever byte was hit
+    private static void damaged() throws IOException {
+        Path file = file();
+        byte[] good = Files.readAllBytes(file);
+        GameRandom random = new GameRandom(3);
+        int refusedCount = 0;
+        for (int i = 0; i < 500; i++) {
+            byte[] bad = good.clone();
+            bad[16 + random.nextInt(bad.length - 16)] ^= (byte) (1 + random.nextInt(255));
+            Files.write(file, bad);
+            GameWorld world = played(300);
+            ByteBuffer before = save(world);
+            if (!quietLoad(world)) {
+                refusedCount++;
+                if (!before.equals(save(world))) {
+                    Checks.that(false, "damaged save " + i + " changed the world it was refused for");
+                    break;
+                }
+            }
+        }
+        Checks.that(refusedCount > 0, "some damaged saves refused");
+        Files.write(file, good);
+    }
+
+    private static void fileNames() {
+        Checks.that(WorldSave.fileName("alice_01-x").equals("alice_01-x"), "plain names unchanged");
+        Checks.that(WorldSave.fileName("../a/b").equals("%2E%2E%2Fa%2Fb"), "dots and slashes escaped");
+        Checks.that(WorldSave.fileName("C:*?\"<>|\\").indexOf(':') < 0, "characters illegal on Windows escaped");
+        Checks.that(WorldSave.fileName("Zoë").equals("Zo%C3%AB"), "UTF-8 bytes escaped");
+        Checks.that(Files.exists(file()), "save of an escaped name stays in the working directory");
+    }
+
+    private static void expectRefused(byte[] contents, String what) throws IOException {
+        Files.write(file(), contents);
+        GameWorld world = played(300);
+        ByteBuffer before = save(world);
+        Checks.that(!quietLoad(world), "refused: " + what);
+        Checks.that(before.equals(save(world)), "world untouched: " + what);
+    }
+
+    // Refusals print why; that is expected here
+    private static boolean quietLoad(GameWorld world) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            return new WorldSave(PLAYER, LEVEL).load(world);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static byte[] with(byte[] contents, int offset, int value) {
+        byte[] changed = contents.clone();
+        ByteBuffer.wrap(changed).putInt(offset, value);
+        return changed;
+    }
+
+    private static Path file() {
+        return Paths.get("save-" + WorldSave.fileName(PLAYER) + "-level" + LEVEL + ".bin");
+    }
+
+    private static GameWorld played(int ticks) {
+        GameWorld world = new GameWorld(new Level4Rules(), 0, 42, null);
+        HeldKeys keys = new HeldKeys();
+        for (int tick = 0; tick < ticks && !world.isFinished(); tick++) {
+            keys.startTick();
+            keys.apply(InputRing.LEFT, tick / 45 % 2 == 0);
+            keys.apply(InputRing.FIRE, true);
+            world.getClock().advance();
+            world.applyInput(keys, 0);
+            world.update();
+        }
+        return world;
+    }
+
+    private static ByteBuffer save(GameWorld world) {
+        ByteBuffer out = ByteBuffer.allocate(1 << 20);
+        world.save(out);
+        out.flip();
+        return out;
+    }
+}